@@ -4,10 +4,18 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.configuration.file.FileConfiguration;
 import dev.msntech.msnreports.commands.ManageReportsCommand;
 import dev.msntech.msnreports.listeners.AdminLoginListener;
+import dev.msntech.msnreports.listeners.RateLimitSyncListener;
 import dev.msntech.msnreports.utils.ChatUtils;
+import dev.msntech.msnreports.utils.RateLimiter;
 import dev.msntech.msnreports.utils.UpdateChecker;
 import dev.msntech.msnreports.database.DatabaseManager;
+import dev.msntech.msnreports.database.ReportEventLog;
+import dev.msntech.msnreports.database.SharedRateLimitStore;
+import dev.msntech.msnreports.database.SqlDialect;
 import dev.msntech.msnreports.managers.ReportManager;
+import dev.msntech.msnreports.events.PluginMessageTransport;
+import dev.msntech.msnreports.events.ReportEventBus;
+import dev.msntech.msnreports.webhook.OutboxDispatcher;
 import net.kyori.adventure.text.Component;
 import java.util.Objects;
 
@@ -24,6 +32,9 @@ public class App extends JavaPlugin {
     private ManageReportsCommand manageReportsCommand;
     private ReportManager reportManager;
     private UpdateChecker updateChecker;
+    private OutboxDispatcher outboxDispatcher;
+    private RateLimiter rateLimiter;
+    private ReportEventBus eventBus;
 
     @Override
     public void onEnable() {
@@ -60,6 +71,8 @@ public class App extends JavaPlugin {
             getLogger().warning("Discord webhook URLs not configured! Please set them in config.yml");
         }
         
+        rateLimiter = new RateLimiter(config);
+        
         // Initialize webhook sender
         webhookSender = new DiscordWebhookSender(this);
         
@@ -67,6 +80,10 @@ public class App extends JavaPlugin {
         try {
             databaseManager = new DatabaseManager(this);
             reportManager = new ReportManager(this);
+            outboxDispatcher = new OutboxDispatcher(this, databaseManager.getOutbox());
+            outboxDispatcher.start();
+            configureRateLimitBackend();
+            startEventBus();
             getLogger().info("SQLite database and report manager initialized successfully!");
         } catch (Exception e) {
             getLogger().severe("Failed to initialize SQLite database!");
@@ -76,8 +93,10 @@ public class App extends JavaPlugin {
         }
         
         // Initialize and register commands
-        reportBugCommand = new ReportBugCommand(this);
-        reportCommand = new ReportCommand(this);
+        // One listener for the confirmation GUI, so each inventory event is handled once
+        BugReportListener reportListener = new BugReportListener(this);
+        reportBugCommand = new ReportBugCommand(this, reportListener);
+        reportCommand = new ReportCommand(this, reportListener);
         manageReportsCommand = new ManageReportsCommand(this);
         
         getCommand("reportbug").setExecutor(reportBugCommand);
@@ -86,14 +105,9 @@ public class App extends JavaPlugin {
         getCommand("managereports").setExecutor(manageReportsCommand);
         getCommand("managereports").setTabCompleter(manageReportsCommand);
         
-        getServer().getPluginManager().registerEvents(reportBugCommand.getReportListener(), this);
-        getServer().getPluginManager().registerEvents(reportCommand.getReportListener(), this);
+        getServer().getPluginManager().registerEvents(reportListener, this);
         getServer().getPluginManager().registerEvents(new AdminLoginListener(this), this);
-        
-        // Start rate limiter cleanup task (every 10 minutes)
-        getServer().getGlobalRegionScheduler().runAtFixedRate(this, (task) -> {
-            dev.msntech.msnreports.utils.RateLimiter.cleanup();
-        }, 20L * 60 * 10, 20L * 60 * 10); // 10 minutes in ticks
+        getServer().getPluginManager().registerEvents(new RateLimitSyncListener(this), this);
         
         // Log startup
         getLogger().info(ChatUtils.getPrefix().append(Component.text("Plugin enabled successfully!")).toString());
@@ -117,15 +131,81 @@ public class App extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (reportManager != null) {
+            reportManager.shutdown();
+        }
         if (webhookSender != null) {
             webhookSender.close();
         }
+        // After the sender so results of notifications sent during shutdown are still recorded
+        if (outboxDispatcher != null) {
+            outboxDispatcher.close();
+        }
+        if (eventBus != null) {
+            eventBus.close();
+            eventBus = null;
+        }
         if (databaseManager != null) {
             databaseManager.close();
         }
         getLogger().info("MSNReports has been disabled!");
     }
     
+    /**
+     * Shares rate limits through the database when rate-limits.backend is 'database'.
+     * Only useful when several servers use the same MySQL database, so SQLite stays local.
+     */
+    private void configureRateLimitBackend() {
+        String backend = getConfig().getString("rate-limits.backend", "local");
+        if (!backend.equalsIgnoreCase("database")) {
+            rateLimiter.setSharedStore(null);
+            return;
+        }
+        if (databaseManager.getDialect() != SqlDialect.MYSQL) {
+            getLogger().warning("rate-limits.backend 'database' needs a MySQL database, using local rate limits");
+            rateLimiter.setSharedStore(null);
+            return;
+        }
+        rateLimiter.setSharedStore(new SharedRateLimitStore(databaseManager, this));
+        // Players already online, e.g. after a reload, would otherwise only pick up shared state on their next use
+        getServer().getOnlinePlayers().forEach(player -> rateLimiter.prefetch(player.getUniqueId()));
+        getLogger().info("Rate limits are shared through the database");
+    }
+
+    /**
+     * Starts sharing report changes with other servers when sync.transport is set.
+     * 'database' polls the shared MySQL database, 'plugin-message' goes through the proxy.
+     */
+    private void startEventBus() {
+        String transportName = getConfig().getString("sync.transport", "none").toLowerCase();
+        ReportEventBus.Transport transport;
+        switch (transportName) {
+            case "database" -> {
+                if (databaseManager.getDialect() != SqlDialect.MYSQL) {
+                    getLogger().warning("sync.transport 'database' needs a MySQL database, report changes are not shared");
+                    return;
+                }
+                transport = new ReportEventLog(databaseManager, this, getConfig().getLong("sync.poll-interval-ms", 2000));
+            }
+            case "plugin-message" -> transport = new PluginMessageTransport(this);
+            case "none" -> {
+                return;
+            }
+            default -> {
+                getLogger().warning("Unknown sync.transport '" + transportName + "', report changes are not shared");
+                return;
+            }
+        }
+        // Looked up per event, the report manager is replaced on reload
+        eventBus = new ReportEventBus(this, transport, event -> {
+            if (reportManager != null) {
+                reportManager.applyRemoteEvent(event);
+            }
+        });
+        eventBus.start();
+        getLogger().info("Sharing report changes with other servers via " + transportName);
+    }
+
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
@@ -138,6 +218,21 @@ public class App extends JavaPlugin {
         return webhookSender;
     }
 
+    public OutboxDispatcher getOutboxDispatcher() {
+        return outboxDispatcher;
+    }
+
+    /**
+     * @return The cross-server event bus, or null if sync is disabled
+     */
+    public ReportEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
     public String getReportsWebhookUrl() {
         return reportsWebhookUrl;
     }
@@ -182,6 +277,11 @@ public class App extends JavaPlugin {
             
             // Log webhook URL changes (only if this is not the first initialization)
             if (oldReportsUrl != null) {
+                // New limits apply right away, players keep their current cooldowns
+                if (rateLimiter != null) {
+                    rateLimiter.configure(config);
+                }
+                
                 getLogger().info("Reloading webhook configurations...");
                 getLogger().info("Webhook enabled states: reports=" + isReportsWebhookEnabled() + 
                                ", admin-changes=" + isAdminChangesWebhookEnabled() + 
@@ -211,19 +311,31 @@ public class App extends JavaPlugin {
                     urlsChanged = true;
                 }
                 
-                if (urlsChanged) {
-                    getLogger().info("Webhook URLs changed, reinitializing webhook clients...");
+                // Only webhooks whose URL changed are rebuilt; the others keep their queue and connection
+                if (webhookSender == null) {
+                    webhookSender = new DiscordWebhookSender(this);
+                    getLogger().info("Initialized webhook clients");
+                } else if (urlsChanged) {
+                    int rebuilt = webhookSender.reload();
+                    getLogger().info("Webhook URLs changed, reinitialized " + rebuilt + " webhook client(s)");
                 } else {
-                    getLogger().info("No webhook URL changes detected, but reinitializing anyway for configuration reload...");
+                    getLogger().info("No webhook URL changes detected, keeping existing webhook clients");
                 }
                 
-                // Always close and reinitialize webhook sender on reload
-                if (webhookSender != null) {
-                    webhookSender.close();
-                    getLogger().info("Closed old webhook clients");
+                // Stop queries against the old database manager before closing it
+                if (reportManager != null) {
+                    reportManager.shutdown();
+                }
+                if (outboxDispatcher != null) {
+                    outboxDispatcher.close();
+                }
+                if (rateLimiter != null) {
+                    rateLimiter.setSharedStore(null);
+                }
+                if (eventBus != null) {
+                    eventBus.close();
+                    eventBus = null;
                 }
-                webhookSender = new DiscordWebhookSender(this);
-                getLogger().info("Initialized new webhook clients");
                 
                 // Close and reinitialize database manager 
                 if (databaseManager != null) {
@@ -233,6 +345,10 @@ public class App extends JavaPlugin {
                 
                 // Reinitialize report manager
                 reportManager = new ReportManager(this);
+                outboxDispatcher = new OutboxDispatcher(this, databaseManager.getOutbox());
+                outboxDispatcher.start();
+                configureRateLimitBackend();
+                startEventBus();
                 
                 getLogger().info("Configuration reloaded successfully! All components reinitialized.");
             } else {
@@ -4,17 +4,23 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import java.util.Arrays;
 
-public class BugReportGUI {
+/**
+ * Confirmation screen for a bug report. It is the holder of its own inventory,
+ * so listeners recognise it with an instanceof check instead of comparing titles.
+ */
+public class BugReportGUI implements InventoryHolder {
     private final App plugin;
     private final BugReport report;
     private final Player player;
     private final BugReportListener listener;
+    private Inventory gui;
 
     public BugReportGUI(App plugin, Player player, BugReport report, BugReportListener listener) {
         this.plugin = plugin;
@@ -24,7 +30,7 @@ public class BugReportGUI {
     }
 
     public void openConfirmationGUI() {
-        Inventory gui = Bukkit.createInventory(null, 45, Component.text("✓ Confirm Bug Report ✓").color(NamedTextColor.GOLD));
+        gui = Bukkit.createInventory(this, 45, Component.text("✓ Confirm Bug Report ✓").color(NamedTextColor.GOLD));
 
         // Fill background with gray glass panes
         ItemStack background = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
@@ -118,4 +124,9 @@ public class BugReportGUI {
 
         player.openInventory(gui);
     }
+
+    @Override
+    public Inventory getInventory() {
+        return gui;
+    }
 }
\ No newline at end of file
@@ -5,16 +5,18 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
-import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.Material;
 import dev.msntech.msnreports.database.DatabaseManager;
+import dev.msntech.msnreports.utils.ChatUtils;
+import dev.msntech.msnreports.utils.RateLimiter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BugReportListener implements Listener {
     private final App plugin;
@@ -22,18 +24,17 @@ public class BugReportListener implements Listener {
 
     public BugReportListener(App plugin) {
         this.plugin = plugin;
-        this.pendingReports = new HashMap<>();
+        // Players on different regions open and click their GUIs on different threads
+        this.pendingReports = new ConcurrentHashMap<>();
     }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
+        // Runs for every click on the server; a holder check rejects other inventories
+        // without building a block state snapshot or rendering the title
+        if (!isReportGUI(event.getInventory())) return;
         if (!(event.getWhoClicked() instanceof Player player)) return;
         
-        // Check if this is our bug report GUI with more precise title checking
-        Component titleComponent = event.getView().title();
-        String title = titleComponent.toString();
-        if (!title.contains("Confirm Bug Report") && !title.contains("✓ Confirm Bug Report ✓")) return;
-        
         // Always cancel the event to prevent item theft/movement
         event.setCancelled(true);
         
@@ -52,6 +53,16 @@ public class BugReportListener implements Listener {
             case EMERALD_BLOCK:
                 // Confirm button clicked
                 player.closeInventory();
+                // Take the cooldown now, so a second report cannot slip in while this one saves
+                RateLimiter rateLimiter = plugin.getRateLimiter();
+                if (!rateLimiter.tryPerform(RateLimiter.Action.BUG_REPORT, player.getUniqueId())) {
+                    long remainingSeconds = rateLimiter.getRemainingSeconds(RateLimiter.Action.BUG_REPORT, player.getUniqueId());
+                    player.sendMessage(ChatUtils.getPrefix()
+                            .append(Component.text("Please wait " + remainingSeconds + " seconds before submitting another bug report.")
+                                    .color(NamedTextColor.RED)));
+                    pendingReports.remove(player.getUniqueId());
+                    break;
+                }
                 player.sendMessage(Component.text("✅ Submitting your bug report...")
                         .color(NamedTextColor.GREEN));
                 // Remove pending report immediately to prevent double-submission
@@ -77,22 +88,13 @@ public class BugReportListener implements Listener {
     
     @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) return;
-        
-        // Check if this is our bug report GUI
-        String title = event.getView().title().toString();
-        if (title.contains("Confirm Bug Report")) {
+        if (isReportGUI(event.getInventory())) {
             event.setCancelled(true); // Prevent dragging items
         }
     }
     
-    @EventHandler  
-    public void onInventoryMoveItem(InventoryMoveItemEvent event) {
-        // Check if this involves our bug report GUI
-        String title = event.getDestination().toString();
-        if (title.contains("Confirm Bug Report")) {
-            event.setCancelled(true); // Prevent item movement
-        }
+    private static boolean isReportGUI(Inventory inventory) {
+        return inventory.getHolder(false) instanceof BugReportGUI;
     }
     
     public void showConfirmationGUI(Player player, BugReport report) {
@@ -111,21 +113,26 @@ public class BugReportListener implements Listener {
     }
 
     public void submitBugReport(BugReport report, Player player) {
-        player.getScheduler().run(plugin, (task) -> {
-            // Save to database first to get the report ID
-            int reportId = plugin.getDatabaseManager().saveBugReport(report);
-            if (reportId > 0) {
-                // Send enhanced Discord notification with report ID using the App's webhook sender
-                plugin.getWebhookSender().sendBugReport(report, reportId, player);
-                player.sendMessage(Component.text("Your bug report #" + reportId + " has been submitted. Thank you!")
-                        .color(NamedTextColor.GREEN));
-            } else {
-                player.sendMessage(Component.text("Failed to save bug report. Please try again.")
-                        .color(NamedTextColor.RED));
+        // Encrypt and insert off the region thread, then hop back to the player only for messaging
+        plugin.getReportManager().submitReport(report).whenComplete((reportId, error) -> {
+            if (error != null || reportId <= 0) {
+                // Not saved, so it should not count against the player; done here in case they left
+                plugin.getRateLimiter().refund(RateLimiter.Action.BUG_REPORT, player.getUniqueId());
             }
-        }, () -> {
-            player.sendMessage(Component.text("Failed to send bug report. Please try again.")
-                    .color(NamedTextColor.RED));
+            player.getScheduler().run(plugin, (task) -> {
+                if (error == null && reportId > 0) {
+                    // The Discord notification was stored with the report; tell the player once it is sent
+                    plugin.getWebhookSender().notifyReporter(reportId, player);
+                    player.sendMessage(Component.text("Your bug report #" + reportId + " has been submitted. Thank you!")
+                            .color(NamedTextColor.GREEN));
+                } else {
+                    if (error != null) {
+                        plugin.getLogger().severe("Failed to save bug report: " + error.getMessage());
+                    }
+                    player.sendMessage(Component.text("Failed to save bug report. Please try again.")
+                            .color(NamedTextColor.RED));
+                }
+            }, null);
         });
     }
 }
\ No newline at end of file
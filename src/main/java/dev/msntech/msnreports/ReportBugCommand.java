@@ -22,9 +22,12 @@ public class ReportBugCommand implements CommandExecutor, Listener {
     private final BugReportListener reportListener;
     private final Map<UUID, Boolean> awaitingReport;
 
-    public ReportBugCommand(App plugin) {
+    /**
+     * @param reportListener Confirmation GUI listener shared by both report commands
+     */
+    public ReportBugCommand(App plugin, BugReportListener reportListener) {
         this.plugin = plugin;
-        this.reportListener = new BugReportListener(plugin);
+        this.reportListener = reportListener;
         this.awaitingReport = new HashMap<>();
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
@@ -46,8 +49,9 @@ public class ReportBugCommand implements CommandExecutor, Listener {
         }
 
         // Check rate limiting
-        if (!RateLimiter.canSubmitBugReport(player)) {
-            long remainingSeconds = RateLimiter.getBugReportCooldownRemaining(player);
+        RateLimiter rateLimiter = plugin.getRateLimiter();
+        if (!rateLimiter.canPerform(RateLimiter.Action.BUG_REPORT, player.getUniqueId())) {
+            long remainingSeconds = rateLimiter.getRemainingSeconds(RateLimiter.Action.BUG_REPORT, player.getUniqueId());
             player.sendMessage(ChatUtils.getPrefix()
                     .append(Component.text("Please wait " + remainingSeconds + " seconds before submitting another bug report.")
                             .color(NamedTextColor.RED)));
@@ -25,9 +25,12 @@ public class ReportCommand implements CommandExecutor, TabCompleter, Listener {
     private final BugReportListener reportListener;
     private final Map<UUID, Boolean> awaitingReport;
 
-    public ReportCommand(App plugin) {
+    /**
+     * @param reportListener Confirmation GUI listener shared by both report commands
+     */
+    public ReportCommand(App plugin, BugReportListener reportListener) {
         this.plugin = plugin;
-        this.reportListener = new BugReportListener(plugin);
+        this.reportListener = reportListener;
         this.awaitingReport = new HashMap<>();
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
@@ -77,8 +80,9 @@ public class ReportCommand implements CommandExecutor, TabCompleter, Listener {
 
     private void handleBugReport(Player player, String[] args) {
         // Check rate limiting
-        if (!RateLimiter.canSubmitBugReport(player)) {
-            long remainingSeconds = RateLimiter.getBugReportCooldownRemaining(player);
+        RateLimiter rateLimiter = plugin.getRateLimiter();
+        if (!rateLimiter.canPerform(RateLimiter.Action.BUG_REPORT, player.getUniqueId())) {
+            long remainingSeconds = rateLimiter.getRemainingSeconds(RateLimiter.Action.BUG_REPORT, player.getUniqueId());
             player.sendMessage(ChatUtils.getPrefix()
                     .append(Component.text("Please wait " + remainingSeconds + " seconds before submitting another bug report.")
                             .color(NamedTextColor.RED)));
@@ -1,7 +1,13 @@
 package dev.msntech.msnreports.commands;
 
 import dev.msntech.msnreports.App;
+import dev.msntech.msnreports.managers.ReportCache;
+import dev.msntech.msnreports.managers.ReportCounters;
 import dev.msntech.msnreports.managers.ReportManager;
+import dev.msntech.msnreports.models.ReportComment;
+import dev.msntech.msnreports.models.ReportCursor;
+import dev.msntech.msnreports.models.ReportFilter;
+import dev.msntech.msnreports.models.ReportPage;
 import dev.msntech.msnreports.models.ReportStatus;
 import dev.msntech.msnreports.utils.ChatUtils;
 import dev.msntech.msnreports.utils.ValidationUtil;
@@ -20,15 +26,15 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class ManageReportsCommand implements CommandExecutor, TabCompleter {
     private final App plugin;
-    private final ReportManager reportManager;
     private static final int REPORTS_PER_PAGE = 5;
 
     public ManageReportsCommand(App plugin) {
         this.plugin = plugin;
-        this.reportManager = plugin.getReportManager();
     }
 
     @Override
@@ -48,14 +54,14 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 0) {
-            showReportList(player, 1, null);
+            showReportList(player, null, null);
             return true;
         }
 
         switch (args[0].toLowerCase()) {
             case "list":
-                int page = args.length > 1 ? Integer.parseInt(args[1]) : 1;
-                showReportList(player, page, null);
+                // Either a page number or a cursor token from the navigation buttons
+                showReportList(player, args.length > 1 ? args[1] : null, null);
                 break;
                 
             case "filter":
@@ -75,8 +81,9 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                 }
                 
                 // Check rate limiting for comments
-                if (!RateLimiter.canAddComment(player)) {
-                    long remainingSeconds = RateLimiter.getCommentCooldownRemaining(player);
+                RateLimiter rateLimiter = plugin.getRateLimiter();
+                if (!rateLimiter.canPerform(RateLimiter.Action.COMMENT, player.getUniqueId())) {
+                    long remainingSeconds = rateLimiter.getRemainingSeconds(RateLimiter.Action.COMMENT, player.getUniqueId());
                     player.sendMessage(ChatUtils.getPrefix()
                             .append(Component.text("Please wait " + remainingSeconds + " seconds before adding another comment.")
                                     .color(NamedTextColor.RED)));
@@ -92,6 +99,16 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                 addReportComment(player, args);
                 break;
                 
+            case "stats":
+                if (!player.hasPermission("msnreports.admin.stats")) {
+                    player.sendMessage(ChatUtils.getPrefix()
+                            .append(Component.text("You don't have permission to view statistics!")
+                                    .color(NamedTextColor.RED)));
+                    return true;
+                }
+                showStats(player);
+                break;
+                
             case "view":
                 if (args.length < 2) {
                     player.sendMessage(ChatUtils.getPrefix()
@@ -133,14 +150,16 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                     
                     if (forceConfirm) {
                         // Bypass double confirmation
-                        var reportOpt = reportManager.getReport(reportId);
-                        if (reportOpt.isEmpty()) {
-                            player.sendMessage(ChatUtils.getPrefix()
-                                    .append(Component.text("Report #" + reportId + " not found!")
-                                            .color(NamedTextColor.RED)));
-                            return true;
-                        }
-                        deleteReport(player, reportId, reportOpt.get());
+                        ReportManager reportManager = plugin.getReportManager();
+                        reportManager.deliver(player, reportManager.getReportAsync(reportId), reportOpt -> {
+                            if (reportOpt.isEmpty()) {
+                                player.sendMessage(ChatUtils.getPrefix()
+                                        .append(Component.text("Report #" + reportId + " not found!")
+                                                .color(NamedTextColor.RED)));
+                                return;
+                            }
+                            deleteReport(player, reportId, reportOpt.get());
+                        });
                     } else {
                         confirmDeleteReport(player, reportId);
                     }
@@ -172,17 +191,44 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private void showReportList(Player player, int page, String statusFilter) {
-        List<Map<String, String>> reports = reportManager.getFilteredReports(page, REPORTS_PER_PAGE, statusFilter);
+    private void showReportList(Player player, String position, ReportFilter filter) {
+        ReportManager reportManager = plugin.getReportManager();
+        CompletableFuture<ReportPage> pageFuture;
+        
+        if (position == null || position.isEmpty()) {
+            pageFuture = reportManager.getReportPageAsync((ReportCursor) null, REPORTS_PER_PAGE, filter);
+        } else if (position.chars().allMatch(Character::isDigit)) {
+            int page;
+            try {
+                page = Integer.parseInt(position);
+            } catch (NumberFormatException e) {
+                // More digits than an int holds, far past the last page anyway
+                page = Integer.MAX_VALUE;
+            }
+            pageFuture = reportManager.getReportPageAsync(page, REPORTS_PER_PAGE, filter);
+        } else {
+            try {
+                pageFuture = reportManager.getReportPageAsync(ReportCursor.decode(position), REPORTS_PER_PAGE, filter);
+            } catch (IllegalArgumentException e) {
+                player.sendMessage(ChatUtils.getPrefix()
+                        .append(Component.text("Invalid page! Use a page number or the navigation buttons.")
+                                .color(NamedTextColor.RED)));
+                return;
+            }
+        }
+        
+        reportManager.deliver(player, pageFuture,
+                reportPage -> renderReportList(player, reportPage, filter, position));
+    }
+
+    private void renderReportList(Player player, ReportPage reportPage, ReportFilter filter, String position) {
+        List<Map<String, String>> reports = reportPage.getReports();
+        int page = reportPage.getPage();
         
         // Build title with filter info
         StringBuilder titleBuilder = new StringBuilder("Bug Reports - Page " + page);
-        if (statusFilter != null) {
-            titleBuilder.append(" (Filtered");
-            if (statusFilter != null) {
-                titleBuilder.append(" Status: ").append(statusFilter);
-            }
-            titleBuilder.append(")");
+        if (filter != null) {
+            titleBuilder.append(" (Filtered ").append(filter.getLabel()).append(")");
         }
         
         player.sendMessage(ChatUtils.getPrefix().append(ChatUtils.createHeader(titleBuilder.toString())));
@@ -212,24 +258,34 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
             player.sendMessage(reportLine);
         }
         
-        // Navigation buttons
+        // Navigation buttons carry keyset cursors so every page costs the same to fetch
+        String baseCommand = filter == null ? "/mr list" : filter.getCommand();
         player.sendMessage(Component.empty());
         Component navigation = Component.empty();
-        if (page > 1) {
-            navigation = navigation.append(ChatUtils.createButton("◀ Previous", "/mr list " + (page - 1), NamedTextColor.AQUA))
+        if (reportPage.hasPrevious()) {
+            navigation = navigation.append(ChatUtils.createButton("◀ Previous",
+                            baseCommand + " " + reportPage.getPreviousCursor().encode(), NamedTextColor.AQUA))
                     .append(Component.text(" "));
         }
-        navigation = navigation.append(ChatUtils.createButton("Refresh", "/mr list " + page, NamedTextColor.GREEN))
+        navigation = navigation.append(ChatUtils.createButton("Refresh",
+                        position == null ? baseCommand : baseCommand + " " + position, NamedTextColor.GREEN))
                 .append(Component.text(" "));
-        if (!reports.isEmpty() && reports.size() >= REPORTS_PER_PAGE) {
-            navigation = navigation.append(ChatUtils.createButton("Next ▶", "/mr list " + (page + 1), NamedTextColor.AQUA));
+        if (reportPage.hasNext()) {
+            navigation = navigation.append(ChatUtils.createButton("Next ▶",
+                    baseCommand + " " + reportPage.getNextCursor().encode(), NamedTextColor.AQUA));
         }
         player.sendMessage(navigation);
     }
 
     private void showReportDetails(Player player, int reportId) {
-        Map<String, String> details = reportManager.getReportDetails(reportId);
-        
+        ReportManager reportManager = plugin.getReportManager();
+        CompletableFuture<Map<String, String>> detailsFuture = reportManager.getReportDetailsAsync(reportId);
+        CompletableFuture<List<ReportComment>> commentsFuture = reportManager.getReportCommentsAsync(reportId);
+        reportManager.deliver(player, detailsFuture.thenCombine(commentsFuture, Map::entry),
+                result -> renderReportDetails(player, reportId, result.getKey(), result.getValue()));
+    }
+
+    private void renderReportDetails(Player player, int reportId, Map<String, String> details, List<ReportComment> comments) {
         if (details == null) {
             player.sendMessage(ChatUtils.getPrefix()
                     .append(Component.text("Report not found!")
@@ -255,15 +311,14 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatUtils.createInfoLine("Inventory", details.get("inventory")));
         
         // Comments section
-        List<String> comments = reportManager.getReportComments(reportId);
         if (!comments.isEmpty()) {
             player.sendMessage(Component.empty());
             player.sendMessage(Component.text("Comments:")
                     .color(NamedTextColor.GOLD)
                     .decoration(net.kyori.adventure.text.format.TextDecoration.BOLD, true));
             
-            for (String comment : comments) {
-                player.sendMessage(Component.text("  " + comment)
+            for (ReportComment comment : comments) {
+                player.sendMessage(Component.text("  " + comment.getFormattedComment())
                         .color(NamedTextColor.GRAY));
             }
         }
@@ -294,19 +349,22 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         
         // Navigation
         player.sendMessage(Component.empty());
-        player.sendMessage(ChatUtils.createButton("◀ Back to List", "/mr list 1", NamedTextColor.AQUA));
+        player.sendMessage(ChatUtils.createButton("◀ Back to List", "/mr list", NamedTextColor.AQUA));
     }
 
     private void updateReportStatus(Player player, int reportId, String status) {
         try {
             ReportStatus newStatus = ReportStatus.valueOf(status.toUpperCase());
-            if (reportManager.updateReportStatus(reportId, newStatus, player)) {
-                player.sendMessage(Component.text("Report status updated successfully!")
-                        .color(NamedTextColor.GREEN));
-            } else {
-                player.sendMessage(Component.text("Failed to update report status!")
-                        .color(NamedTextColor.RED));
-            }
+            ReportManager reportManager = plugin.getReportManager();
+            reportManager.deliver(player, reportManager.updateReportStatusAsync(reportId, newStatus, player), updated -> {
+                if (updated) {
+                    player.sendMessage(Component.text("Report status updated successfully!")
+                            .color(NamedTextColor.GREEN));
+                } else {
+                    player.sendMessage(Component.text("Failed to update report status!")
+                            .color(NamedTextColor.RED));
+                }
+            });
         } catch (IllegalArgumentException e) {
             player.sendMessage(Component.text("Invalid status! Valid statuses: " +
                     Arrays.toString(ReportStatus.values()))
@@ -330,21 +388,24 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
             // Validate the comment
             String comment = ValidationUtil.validateComment(messageBuilder.toString());
             
-            if (reportManager.addReportComment(reportId, player.getName(), comment)) {
-                // Record the rate limit after successful comment
-                RateLimiter.recordComment(player);
-                
-                player.sendMessage(ChatUtils.getPrefix()
-                        .append(Component.text("Comment added successfully!")
-                                .color(NamedTextColor.GREEN)));
-                        
-                // Show updated report details
-                showReportDetails(player, reportId);
-            } else {
-                player.sendMessage(ChatUtils.getPrefix()
-                        .append(Component.text("Failed to add comment or report not found!")
-                                .color(NamedTextColor.RED)));
-            }
+            ReportManager reportManager = plugin.getReportManager();
+            reportManager.deliver(player, reportManager.addReportCommentAsync(reportId, player.getName(), comment), added -> {
+                if (added) {
+                    // Record the rate limit after successful comment
+                    plugin.getRateLimiter().record(RateLimiter.Action.COMMENT, player.getUniqueId());
+                    
+                    player.sendMessage(ChatUtils.getPrefix()
+                            .append(Component.text("Comment added successfully!")
+                                    .color(NamedTextColor.GREEN)));
+                            
+                    // Show updated report details
+                    showReportDetails(player, reportId);
+                } else {
+                    player.sendMessage(ChatUtils.getPrefix()
+                            .append(Component.text("Failed to add comment or report not found!")
+                                    .color(NamedTextColor.RED)));
+                }
+            });
         } catch (IllegalArgumentException e) {
             player.sendMessage(ChatUtils.getPrefix()
                     .append(Component.text("Invalid input: " + e.getMessage())
@@ -352,6 +413,29 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    private void showStats(Player player) {
+        ReportCache cache = plugin.getReportManager().getCache();
+        long hits = cache.getHits();
+        long lookups = hits + cache.getMisses();
+        
+        player.sendMessage(ChatUtils.getPrefix()
+                .append(ChatUtils.createHeader("Report Statistics")));
+        player.sendMessage(ChatUtils.createInfoLine("Cached reports",
+                cache.size() + " (" + cache.getSizeBytes() / 1024 + " KB)"));
+        player.sendMessage(ChatUtils.createInfoLine("Cache hits", hits + " / " + lookups +
+                (lookups > 0 ? String.format(" (%.1f%%)", hits * 100.0 / lookups) : "")));
+        player.sendMessage(ChatUtils.createInfoLine("Cache evictions", String.valueOf(cache.getEvictions())));
+        
+        ReportCounters counters = plugin.getReportManager().getCounters();
+        for (ReportStatus status : ReportStatus.values()) {
+            player.sendMessage(ChatUtils.createInfoLine(status.getDisplay() + " reports", String.valueOf(counters.getCount(status))));
+        }
+        player.sendMessage(ChatUtils.createInfoLine("Reports in the last 24 hours", String.valueOf(counters.getRecentCount())));
+        
+        plugin.getDatabaseManager().getStorageSettings().forEach((setting, value) ->
+                player.sendMessage(ChatUtils.createInfoLine("SQLite " + setting, value)));
+    }
+
     private void sendHelpMessage(Player player) {
         player.sendMessage(Component.text("=== MSNReports Management Commands ===")
                 .color(NamedTextColor.GOLD));
@@ -359,6 +443,10 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                 .color(NamedTextColor.WHITE));
         player.sendMessage(Component.text("/managereports filter status <status> [page] - Filter by status")
                 .color(NamedTextColor.WHITE));
+        player.sendMessage(Component.text("/managereports filter player <name|uuid> [page] - Filter by reporter")
+                .color(NamedTextColor.WHITE));
+        player.sendMessage(Component.text("/managereports filter world <world> [page] - Filter by world")
+                .color(NamedTextColor.WHITE));
         player.sendMessage(Component.text("/managereports view <id> - View report details")
                 .color(NamedTextColor.WHITE));
         player.sendMessage(Component.text("/managereports comment <id> <message> - Add comment to report")
@@ -375,6 +463,10 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
             player.sendMessage(Component.text("/managereports reload - Reload plugin configuration")
                     .color(NamedTextColor.YELLOW));
         }
+        if (player.hasPermission("msnreports.admin.stats")) {
+            player.sendMessage(Component.text("/managereports stats - View report and cache statistics")
+                    .color(NamedTextColor.YELLOW));
+        }
     }
 
     private void handleFilterCommand(Player player, String[] args) {
@@ -384,14 +476,15 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         }
 
         String filterType = args[1].toLowerCase();
-        String filterValue = args[2].toUpperCase();
-        int page = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        String filterValue = args[2];
+        String position = args.length > 3 ? args[3] : null;
 
         switch (filterType) {
             case "status":
                 try {
+                    filterValue = filterValue.toUpperCase();
                     ReportStatus.valueOf(filterValue);
-                    showReportList(player, page, filterValue);
+                    showReportList(player, position, new ReportFilter(ReportFilter.Type.STATUS, filterValue));
                 } catch (IllegalArgumentException e) {
                     player.sendMessage(ChatUtils.getPrefix()
                             .append(Component.text("Invalid status! Valid statuses: " + 
@@ -399,6 +492,12 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                                     .color(NamedTextColor.RED)));
                 }
                 break;
+            case "player":
+                showReportList(player, position, new ReportFilter(ReportFilter.Type.PLAYER, filterValue));
+                break;
+            case "world":
+                showReportList(player, position, new ReportFilter(ReportFilter.Type.WORLD, filterValue));
+                break;
             default:
                 showFilterHelp(player);
         }
@@ -411,6 +510,12 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                 .color(NamedTextColor.YELLOW));
         player.sendMessage(Component.text("  Available statuses: " + Arrays.toString(ReportStatus.values()))
                 .color(NamedTextColor.GRAY));
+        player.sendMessage(Component.text("/mr filter player <name|uuid> [page]")
+                .color(NamedTextColor.YELLOW));
+        player.sendMessage(Component.text("/mr filter world <world> [page]")
+                .color(NamedTextColor.YELLOW));
+        player.sendMessage(Component.text("  Player and world names are matched case-insensitively")
+                .color(NamedTextColor.GRAY));
     }
 
     @Override
@@ -425,9 +530,12 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
             if (sender.hasPermission("msnreports.admin.delete")) {
                 completions.add("delete");
             }
+            if (sender.hasPermission("msnreports.admin.stats")) {
+                completions.add("stats");
+            }
         } else if (args.length == 2) {
             if (args[0].equalsIgnoreCase("filter")) {
-                completions.addAll(Arrays.asList("status"));
+                completions.addAll(Arrays.asList("status", "player", "world"));
             }
         } else if (args.length == 3) {
             if (args[0].equalsIgnoreCase("status") && sender.hasPermission("msnreports.manage.status")) {
@@ -439,6 +547,10 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
                     completions.addAll(Arrays.stream(ReportStatus.values())
                             .map(status -> status.name().toLowerCase())
                             .toList());
+                } else if (args[1].equalsIgnoreCase("player")) {
+                    plugin.getServer().getOnlinePlayers().forEach(online -> completions.add(online.getName()));
+                } else if (args[1].equalsIgnoreCase("world")) {
+                    plugin.getServer().getWorlds().forEach(world -> completions.add(world.getName()));
                 }
             }
         }
@@ -536,7 +648,12 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
         plugin.getLogger().info("Confirming delete for report #" + reportId + " by " + player.getName());
         
         // Check if report exists first
-        var reportOpt = reportManager.getReport(reportId);
+        ReportManager reportManager = plugin.getReportManager();
+        reportManager.deliver(player, reportManager.getReportAsync(reportId),
+                reportOpt -> promptDeleteConfirmation(player, reportId, reportOpt));
+    }
+    
+    private void promptDeleteConfirmation(Player player, int reportId, Optional<Map<String, Object>> reportOpt) {
         if (reportOpt.isEmpty()) {
             plugin.getLogger().warning("Report #" + reportId + " not found in database");
             player.sendMessage(ChatUtils.getPrefix()
@@ -608,36 +725,31 @@ public class ManageReportsCommand implements CommandExecutor, TabCompleter {
     }
     
     private void deleteReport(Player player, int reportId, Map<String, Object> report) {
-        try {
-            // Delete from database
-            boolean success = reportManager.deleteReport(reportId);
-            
-            if (success) {
-                player.sendMessage(ChatUtils.getPrefix()
-                        .append(Component.text("✅ Report #" + reportId + " has been deleted successfully!")
-                                .color(NamedTextColor.GREEN)));
-                
-                // Log the deletion
-                plugin.getLogger().info("Report #" + reportId + " deleted by " + player.getName() + 
-                        " (Player: " + report.get("playerName") + ")");
-                
-                // Send Discord notification if enabled
-                if (plugin.getWebhookSender() != null) {
-                    plugin.getWebhookSender().sendReportDeletion(reportId, report, player);
+        ReportManager reportManager = plugin.getReportManager();
+        reportManager.deliver(player, reportManager.deleteReportAsync(reportId, player), success -> {
+            try {
+                if (success) {
+                    player.sendMessage(ChatUtils.getPrefix()
+                            .append(Component.text("✅ Report #" + reportId + " has been deleted successfully!")
+                                    .color(NamedTextColor.GREEN)));
+                    
+                    // Log the deletion
+                    plugin.getLogger().info("Report #" + reportId + " deleted by " + player.getName() + 
+                            " (Player: " + report.get("playerName") + ")");
+                    
+                } else {
+                    player.sendMessage(ChatUtils.getPrefix()
+                            .append(Component.text("❌ Failed to delete report #" + reportId + "!")
+                                    .color(NamedTextColor.RED)));
                 }
                 
-            } else {
+            } catch (Exception e) {
                 player.sendMessage(ChatUtils.getPrefix()
-                        .append(Component.text("❌ Failed to delete report #" + reportId + "!")
+                        .append(Component.text("❌ Error occurred while deleting report: " + e.getMessage())
                                 .color(NamedTextColor.RED)));
+                plugin.getLogger().severe("Failed to delete report #" + reportId + ": " + e.getMessage());
+                e.printStackTrace();
             }
-            
-        } catch (Exception e) {
-            player.sendMessage(ChatUtils.getPrefix()
-                    .append(Component.text("❌ Error occurred while deleting report: " + e.getMessage())
-                            .color(NamedTextColor.RED)));
-            plugin.getLogger().severe("Failed to delete report #" + reportId + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package dev.msntech.msnreports.database;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * One-time job that computes blind indexes for reports saved before the
+ * blind index columns existed. Works in small id-ordered batches so it
+ * never holds a long transaction, and finds nothing to do once complete.
+ * Rows that cannot be decrypted keep NULL indexes and are tried again on the next start.
+ */
+public class BlindIndexBackfill implements Runnable {
+    private static final int BATCH_SIZE = 500;
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+
+    public BlindIndexBackfill(DatabaseManager databaseManager, Plugin plugin) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        String selectSql = "SELECT id, player_name, player_uuid, world FROM bug_reports " +
+                "WHERE player_uuid_bidx IS NULL AND id > ? ORDER BY id LIMIT ?";
+        String updateSql = "UPDATE bug_reports SET player_name_bidx = ?, player_uuid_bidx = ?, world_bidx = ? WHERE id = ?";
+        int lastId = 0;
+        int total = 0;
+        int failed = 0;
+
+        try {
+            while (true) {
+                int rowCount = 0;
+                int batchCount = 0;
+                try (Connection conn = databaseManager.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement select = conn.prepareStatement(selectSql);
+                         PreparedStatement update = conn.prepareStatement(updateSql)) {
+                        select.setInt(1, lastId);
+                        select.setInt(2, BATCH_SIZE);
+                        try (ResultSet rs = select.executeQuery()) {
+                            while (rs.next()) {
+                                lastId = rs.getInt("id");
+                                rowCount++;
+                                String playerNameIndex;
+                                String playerUuidIndex;
+                                String worldIndex;
+                                try {
+                                    playerNameIndex = index(rs.getString("player_name"));
+                                    playerUuidIndex = index(rs.getString("player_uuid"));
+                                    worldIndex = index(rs.getString("world"));
+                                } catch (RuntimeException e) {
+                                    // An index of the ciphertext could never match a lookup, so leave it NULL
+                                    failed++;
+                                    continue;
+                                }
+                                update.setString(1, playerNameIndex);
+                                update.setString(2, playerUuidIndex);
+                                update.setString(3, worldIndex);
+                                update.setInt(4, lastId);
+                                update.addBatch();
+                                batchCount++;
+                            }
+                        }
+                        if (batchCount > 0) {
+                            update.executeBatch();
+                        }
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+
+                total += batchCount;
+                if (rowCount < BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Blind index backfill stopped after " + total + " reports: " + e.getMessage());
+            return;
+        }
+
+        if (total > 0 || failed > 0) {
+            plugin.getLogger().info("Backfilled blind indexes for " + total + " existing reports" +
+                    (failed > 0 ? " (" + failed + " reports could not be decrypted and were skipped)" : ""));
+        }
+    }
+
+    private String index(String encrypted) {
+        return encrypted == null ? null : databaseManager.blindIndex(databaseManager.decryptOrThrow(encrypted));
+    }
+}
@@ -2,28 +2,56 @@ package dev.msntech.msnreports.database;
 
 import dev.msntech.msnreports.BugReport;
 import dev.msntech.msnreports.utils.EncryptionUtil;
+import dev.msntech.msnreports.webhook.WebhookEvent;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.DriverManager;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DatabaseManager {
+    static final String INSERT_REPORT_SQL = "INSERT INTO bug_reports (player_name, player_uuid, description, world, x, y, z, " +
+                "ip_address, game_mode, health, level, inventory, player_name_bidx, player_uuid_bidx, world_bidx) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final String databasePath;
     private final Plugin plugin;
     private final EncryptionUtil encryption;
     private final HikariDataSource dataSource;
+    private final HikariDataSource readDataSource;
+    private volatile Map<String, String> storageSettings = Collections.emptyMap();
+    private ScheduledTask optimizeTask;
     private final String databaseType;
+    private final SqlDialect dialect;
+    private final GroupCommitWriter reportWriter;
+    private final WebhookOutbox outbox;
+    private final ExecutorService decryptExecutor;
+    private final int parallelDecryptThreshold;
 
     public DatabaseManager(Plugin plugin) {
         this.plugin = plugin;
         FileConfiguration config = plugin.getConfig();
         this.databaseType = config.getString("database.type", "sqlite").toLowerCase();
+        this.dialect = SqlDialect.fromType(databaseType);
         
         // Initialize encryption with a secure key
         try {
@@ -42,6 +70,7 @@ public class DatabaseManager {
         if ("mysql".equals(databaseType)) {
             this.databasePath = null; // Not used for MySQL
             this.dataSource = initializeMySQLConnection(config);
+            this.readDataSource = null; // MySQL handles concurrent writers itself
             plugin.getLogger().info("Using MySQL database");
         } else {
             // Default to SQLite
@@ -49,27 +78,166 @@ public class DatabaseManager {
                 plugin.getDataFolder().mkdirs();
             }
             this.databasePath = new File(plugin.getDataFolder(), "reports.db").getAbsolutePath();
+            // SQLite allows one writer at a time, so all writes share a single connection
+            // and reads get their own pool; in WAL mode readers never block the writer
             this.dataSource = initializeSQLiteConnection();
-            plugin.getLogger().info("Using SQLite database");
+            this.readDataSource = initializeSQLiteReadPool(Math.max(1, config.getInt("database.sqlite.read-pool-size", 4)));
+            plugin.getLogger().info("Using SQLite database (WAL mode)");
+        }
+        
+        // Optional pool that splits very large bulk decrypts (exports) across threads
+        int decryptThreads = config.getInt("database.bulk-decrypt.threads", 0);
+        this.parallelDecryptThreshold = Math.max(1, config.getInt("database.bulk-decrypt.parallel-threshold", 1000));
+        if (decryptThreads > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.decryptExecutor = Executors.newFixedThreadPool(decryptThreads, runnable -> {
+                Thread thread = new Thread(runnable, "msnReports-Decrypt-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.decryptExecutor = null;
         }
         
         createTables();
-        migrateDatabase();
+        new SchemaMigrator(this, plugin, dialect == SqlDialect.MYSQL).migrate();
+        
+        if (readDataSource != null) {
+            // Confirms the pragmas actually took effect, since unknown driver properties are ignored
+            readSQLiteSettings();
+            long optimizeMinutes = config.getLong("database.sqlite.optimize-interval-minutes", 60);
+            if (optimizeMinutes > 0) {
+                this.optimizeTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin,
+                        (task) -> optimizeSQLite(), optimizeMinutes, optimizeMinutes, TimeUnit.MINUTES);
+            }
+        }
+        
+        // Fill blind indexes for reports saved before they existed
+        plugin.getServer().getAsyncScheduler().runNow(plugin, (task) -> new BlindIndexBackfill(this, plugin).run());
+        
+        // Move values written in the legacy CBC format to AES-GCM a batch at a time
+        if (config.getBoolean("database.reencryption.enabled", true)) {
+            new ReencryptionJob(this, plugin,
+                    config.getInt("database.reencryption.batch-size", 200),
+                    config.getLong("database.reencryption.batch-delay-ms", 500)).start();
+        }
+        
+        this.outbox = new WebhookOutbox(this, plugin);
+        
+        // Dedicated writer thread so report inserts never run on a region/main thread,
+        // grouping bursts of reports into a single transaction
+        this.reportWriter = new GroupCommitWriter(this, plugin,
+                config.getInt("database.write-batch.flush-size", 25),
+                config.getLong("database.write-batch.flush-delay-ms", 50),
+                dialect == SqlDialect.MYSQL);
+    }
+    
+    /**
+     * Wraps an existing SQLite pool and creates the base table, without migrating or
+     * starting any background work. Used by tests to drive the migrations directly.
+     */
+    DatabaseManager(Plugin plugin, HikariDataSource dataSource, String encryptionKey) {
+        this.plugin = plugin;
+        this.databaseType = "sqlite";
+        this.dialect = SqlDialect.SQLITE;
+        this.encryption = new EncryptionUtil(encryptionKey);
+        this.databasePath = null;
+        this.dataSource = dataSource;
+        this.readDataSource = null;
+        this.decryptExecutor = null;
+        this.parallelDecryptThreshold = 1;
+        this.outbox = null;
+        this.reportWriter = null;
+        createTables();
     }
     
     private HikariDataSource initializeSQLiteConnection() {
         HikariConfig config = new HikariConfig();
+        config.setPoolName("msnReports-SQLite-Writer");
+        config.setJdbcUrl("jdbc:sqlite:" + databasePath);
+        // One writer connection; Hikari queues callers waiting for it in arrival order
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        config.setLeakDetectionThreshold(60000);
+        // WAL is stored in the database file, so setting it on the writer applies to every connection
+        config.addDataSourceProperty("journal_mode", "WAL");
+        applySQLitePragmas(config);
+        
+        return new HikariDataSource(config);
+    }
+    
+    private HikariDataSource initializeSQLiteReadPool(int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("msnReports-SQLite-Reader");
         config.setJdbcUrl("jdbc:sqlite:" + databasePath);
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(1);
         config.setConnectionTimeout(30000);
         config.setIdleTimeout(600000);
         config.setMaxLifetime(1800000);
         config.setLeakDetectionThreshold(60000);
+        // Guard against writes slipping through the read pool and contending with the writer
+        config.setConnectionInitSql("PRAGMA query_only = 1");
+        applySQLitePragmas(config);
         
         return new HikariDataSource(config);
     }
     
+    private void applySQLitePragmas(HikariConfig config) {
+        FileConfiguration pluginConfig = plugin.getConfig();
+        long mmapSizeMb = Math.max(0, pluginConfig.getLong("database.sqlite.mmap-size-mb", 256));
+        long cacheSizeMb = Math.max(1, pluginConfig.getLong("database.sqlite.cache-size-mb", 16));
+        String tempStore = pluginConfig.getString("database.sqlite.temp-store", "MEMORY").toUpperCase();
+        
+        // NORMAL is durable in WAL mode except for the last commits on power loss, and avoids an fsync per commit
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        // Negative cache_size is in KiB, applied per connection
+        config.addDataSourceProperty("cache_size", String.valueOf(-cacheSizeMb * 1024));
+        // Memory-mapped reads are served from the OS page cache without a read() syscall per page
+        config.addDataSourceProperty("mmap_size", String.valueOf(mmapSizeMb * 1024 * 1024));
+        config.addDataSourceProperty("temp_store", tempStore);
+        // Wait for the write lock instead of failing immediately with SQLITE_BUSY
+        config.addDataSourceProperty("busy_timeout", "5000");
+    }
+    
+    private void readSQLiteSettings() {
+        String[] pragmas = {"journal_mode", "synchronous", "cache_size", "mmap_size", "temp_store"};
+        Map<String, String> settings = new LinkedHashMap<>();
+        try (Connection conn = getReadConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String pragma : pragmas) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+                    settings.put(pragma, rs.next() ? rs.getString(1) : "?");
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read SQLite settings: " + e.getMessage());
+            return;
+        }
+        storageSettings = Collections.unmodifiableMap(settings);
+        plugin.getLogger().info("SQLite settings: " + settings);
+    }
+    
+    private void optimizeSQLite() {
+        // Lets SQLite refresh query planner statistics for tables whose usage changed
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA optimize");
+        } catch (SQLException e) {
+            plugin.getLogger().warning("PRAGMA optimize failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * @return Effective storage settings read back from the database at startup, empty for MySQL
+     */
+    public Map<String, String> getStorageSettings() {
+        return storageSettings;
+    }
+    
     private HikariDataSource initializeMySQLConnection(FileConfiguration config) {
         HikariConfig hikariConfig = new HikariConfig();
         
@@ -79,7 +247,7 @@ public class DatabaseManager {
         String username = config.getString("database.mysql.username", "root");
         String password = config.getString("database.mysql.password", "");
         
-        String jdbcUrl = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true", 
+        String jdbcUrl = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true", 
                                       host, port, database);
         
         hikariConfig.setJdbcUrl(jdbcUrl);
@@ -87,6 +255,11 @@ public class DatabaseManager {
         hikariConfig.setPassword(password);
         hikariConfig.setDriverClassName("com.mysql.cj.jdbc.Driver");
         
+        // Reuse prepared statements per connection instead of parsing them on every query
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        
         // Connection pool settings
         hikariConfig.setMaximumPoolSize(config.getInt("database.mysql.pool.maximum-pool-size", 10));
         hikariConfig.setMinimumIdle(config.getInt("database.mysql.pool.minimum-idle", 2));
@@ -104,11 +277,49 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * @return A connection for writes, or reads that must see uncommitted changes of a transaction
+     */
     public Connection getConnection() throws SQLException {
         return dataSource.getConnection();
     }
     
+    /**
+     * @return A connection for read-only queries; on SQLite this comes from the separate reader pool
+     */
+    public Connection getReadConnection() throws SQLException {
+        return readDataSource != null ? readDataSource.getConnection() : dataSource.getConnection();
+    }
+    
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+    
+    public WebhookOutbox getOutbox() {
+        return outbox;
+    }
+    
+    public boolean isClosed() {
+        return dataSource == null || dataSource.isClosed();
+    }
+    
     public void close() {
+        // Let queued report inserts finish before the pool goes away
+        reportWriter.close(10000);
+        
+        if (decryptExecutor != null) {
+            decryptExecutor.shutdownNow();
+        }
+        
+        if (optimizeTask != null) {
+            optimizeTask.cancel();
+        }
+        
+        if (readDataSource != null && !readDataSource.isClosed()) {
+            optimizeSQLite();
+            readDataSource.close();
+        }
+        
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             plugin.getLogger().info("Database connection pool closed!");
@@ -131,14 +342,14 @@ public class DatabaseManager {
                     "y DOUBLE NOT NULL," +
                     "z DOUBLE NOT NULL," +
                     "ip_address TEXT," +
-                    "game_mode TEXT," +
+                    "game_mode VARCHAR(32)," +
                     "health DOUBLE," +
                     "level INT," +
                     "inventory LONGTEXT," +
-                    "status VARCHAR(50) DEFAULT 'OPEN'," +
+                    "status VARCHAR(20) NOT NULL DEFAULT 'OPEN'," +
                     "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
                     "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
-                    "handler TEXT," +
+                    "handler VARCHAR(64)," +
                     "comments LONGTEXT" +
                     ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
             } else {
@@ -174,45 +385,44 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Saves a bug report on the dedicated writer thread.
+     * Encryption and the JDBC insert both happen off the calling thread, and reports
+     * arriving close together are committed in one transaction.
+     * @param report The report to save
+     * @return future completing with the generated report ID, or -1 if saving failed
+     */
+    public CompletableFuture<Integer> saveBugReportAsync(BugReport report) {
+        return reportWriter.submit(report);
+    }
+
     public int saveBugReport(BugReport report) {
-        String sql = "INSERT INTO bug_reports (player_name, player_uuid, description, world, x, y, z, " +
-                    "ip_address, game_mode, health, level, inventory) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, java.sql.Statement.RETURN_GENERATED_KEYS)) {
-            
-            String[] locationParts = report.getLocation().split(", ");
-            String world = locationParts[0].replace("World: ", "");
-            double x = Double.parseDouble(locationParts[1].replace("X: ", ""));
-            double y = Double.parseDouble(locationParts[2].replace("Y: ", ""));
-            double z = Double.parseDouble(locationParts[3].replace("Z: ", ""));
-            
-            // Encrypt sensitive data
-            stmt.setString(1, encryption.encrypt(report.getPlayerName()));
-            stmt.setString(2, encryption.encrypt(report.getPlayerUUID()));
-            stmt.setString(3, encryption.encrypt(report.getDescription()));
-            stmt.setString(4, encryption.encrypt(world));
-            stmt.setDouble(5, x);
-            stmt.setDouble(6, y);
-            stmt.setDouble(7, z);
-            stmt.setString(8, encryption.encrypt(report.getIpAddress()));
-            stmt.setString(9, report.getGameMode());
-            stmt.setDouble(10, report.getHealth());
-            stmt.setInt(11, report.getLevel());
-            stmt.setString(12, encryption.encrypt(report.getInventory()));
-            
-            stmt.executeUpdate();
-            
-            // Get the generated report ID
-            try (java.sql.ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    int reportId = rs.getInt(1);
-                    // Bug report saved successfully - reduced logging for cleaner console
-                    return reportId;
+        try (Connection conn = getConnection()) {
+            // The report and its Discord notification are committed together
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_REPORT_SQL, java.sql.Statement.RETURN_GENERATED_KEYS)) {
+                bindReport(stmt, report);
+                stmt.executeUpdate();
+                
+                // Get the generated report ID
+                try (java.sql.ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        int reportId = rs.getInt(1);
+                        outbox.append(conn, WebhookEvent.reportCreated(reportId, report));
+                        conn.commit();
+                        outbox.signal();
+                        return reportId;
+                    }
                 }
+                conn.rollback();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
-        } catch (SQLException e) {
+        } catch (SQLException | RuntimeException e) {
             plugin.getLogger().severe("Failed to save bug report: " + e.getMessage());
             e.printStackTrace();
         }
@@ -220,6 +430,33 @@ public class DatabaseManager {
         return -1; // Return -1 if failed
     }
 
+    void bindReport(PreparedStatement stmt, BugReport report) throws SQLException {
+        String[] locationParts = report.getLocation().split(", ");
+        String world = locationParts[0].replace("World: ", "");
+        double x = Double.parseDouble(locationParts[1].replace("X: ", ""));
+        double y = Double.parseDouble(locationParts[2].replace("Y: ", ""));
+        double z = Double.parseDouble(locationParts[3].replace("Z: ", ""));
+        
+        // Encrypt sensitive data
+        stmt.setString(1, encryption.encrypt(report.getPlayerName()));
+        stmt.setString(2, encryption.encrypt(report.getPlayerUUID()));
+        stmt.setString(3, encryption.encrypt(report.getDescription()));
+        stmt.setString(4, encryption.encrypt(world));
+        stmt.setDouble(5, x);
+        stmt.setDouble(6, y);
+        stmt.setDouble(7, z);
+        stmt.setString(8, encryption.encrypt(report.getIpAddress()));
+        stmt.setString(9, report.getGameMode());
+        stmt.setDouble(10, report.getHealth());
+        stmt.setInt(11, report.getLevel());
+        stmt.setString(12, encryption.encrypt(report.getInventory()));
+        
+        // Blind indexes make the encrypted player and world columns searchable
+        stmt.setString(13, encryption.blindIndex(report.getPlayerName()));
+        stmt.setString(14, encryption.blindIndex(report.getPlayerUUID()));
+        stmt.setString(15, encryption.blindIndex(world));
+    }
+
     public String encrypt(String data) {
         try {
             return encryption.encrypt(data);
@@ -229,68 +466,77 @@ public class DatabaseManager {
         }
     }
 
-    public String decrypt(String encryptedData) {
-        try {
-            return encryption.decrypt(encryptedData);
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to decrypt data: " + e.getMessage());
-            return encryptedData; // Return encrypted data as fallback
-        }
+    /**
+     * Computes the blind index used to look up an encrypted column by value
+     * @param value The plaintext value
+     * @return The blind index, or null if value is null
+     */
+    public String blindIndex(String value) {
+        return encryption.blindIndex(value);
     }
 
-    private void migrateDatabase() {
-        try (Connection conn = getConnection()) {
-            // Check if old schema exists and migrate if needed
-            try {
-                // Check if 'player' column exists (old schema)
-                conn.createStatement().execute("SELECT player FROM bug_reports LIMIT 1");
-                
-                // If we get here, old schema exists, need to migrate
-                plugin.getLogger().info("Migrating database from old schema...");
-                
-                // Add missing columns if they don't exist
-                addColumnIfNotExists(conn, "player_name", "TEXT");
-                addColumnIfNotExists(conn, "player_uuid", "TEXT");
-                addColumnIfNotExists(conn, "ip_address", "TEXT");
-                addColumnIfNotExists(conn, "game_mode", "TEXT");
-                addColumnIfNotExists(conn, "health", "DOUBLE");
-                
-                if ("mysql".equals(databaseType)) {
-                    addColumnIfNotExists(conn, "level", "INT");
-                } else {
-                    addColumnIfNotExists(conn, "level", "INTEGER");
+    public boolean isCurrentFormat(String encryptedData) {
+        return encryption.isCurrentFormat(encryptedData);
+    }
+    
+    /**
+     * Decrypts a value. Unlike decrypt, failures are thrown instead of returning the input.
+     */
+    String decryptOrThrow(String encryptedData) {
+        return encryption.decrypt(encryptedData);
+    }
+    
+    /**
+     * Decrypts a value and encrypts it again in the current format.
+     * Unlike decrypt, failures are thrown instead of returning the input.
+     */
+    String reencrypt(String encryptedData) {
+        return encryption.encrypt(encryption.decrypt(encryptedData));
+    }
+    
+    /**
+     * Decrypts a whole page of encrypted columns in one pass, reusing the cipher and buffers.
+     * Values that fail to decrypt are returned as-is, like {@link #decrypt(String)}.
+     * @param values Encrypted values, null entries stay null
+     * @return Plaintexts at the same positions as the input
+     */
+    public String[] decryptAll(String[] values) {
+        String[] results = new String[values.length];
+        int failures;
+        
+        if (decryptExecutor == null || values.length < parallelDecryptThreshold) {
+            failures = encryption.decryptAll(values, results, 0, values.length);
+        } else {
+            // Each chunk gets its own buffers; the thread-local ciphers keep the workers independent
+            int chunks = Math.min(values.length / parallelDecryptThreshold + 1, 8);
+            int chunkSize = (values.length + chunks - 1) / chunks;
+            List<CompletableFuture<Integer>> futures = new ArrayList<>(chunks);
+            for (int from = 0; from < values.length; from += chunkSize) {
+                int start = from;
+                int end = Math.min(values.length, from + chunkSize);
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> encryption.decryptAll(values, results, start, end), decryptExecutor));
+            }
+            failures = futures.stream().mapToInt(CompletableFuture::join).sum();
+        }
+        
+        if (failures > 0) {
+            plugin.getLogger().severe("Failed to decrypt " + failures + " of " + values.length + " values");
+            for (int i = 0; i < values.length; i++) {
+                if (results[i] == null) {
+                    results[i] = values[i]; // Return encrypted data as fallback
                 }
-                
-                // Copy data from old 'player' column to new 'player_name' column if player_name is empty
-                conn.createStatement().execute(
-                    "UPDATE bug_reports SET player_name = player WHERE player_name IS NULL OR player_name = ''"
-                );
-                
-                plugin.getLogger().info("Database migration completed successfully!");
-                
-            } catch (SQLException e) {
-                // Old schema doesn't exist, new schema is already in place
-                plugin.getLogger().info("Database schema is up to date");
             }
-            
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Failed to migrate database: " + e.getMessage());
-            e.printStackTrace();
         }
+        return results;
     }
-
-    private void addColumnIfNotExists(Connection conn, String columnName, String columnType) {
+    
+    public String decrypt(String encryptedData) {
         try {
-            if ("mysql".equals(databaseType)) {
-                // MySQL syntax for adding columns
-                conn.createStatement().execute("ALTER TABLE bug_reports ADD COLUMN " + columnName + " " + columnType);
-            } else {
-                // SQLite syntax for adding columns
-                conn.createStatement().execute("ALTER TABLE bug_reports ADD COLUMN " + columnName + " " + columnType);
-            }
-            plugin.getLogger().info("Added column: " + columnName);
-        } catch (SQLException e) {
-            // Column already exists, ignore the error
+            return encryption.decrypt(encryptedData);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to decrypt data: " + e.getMessage());
+            return encryptedData; // Return encrypted data as fallback
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,219 @@
+package dev.msntech.msnreports.database;
+
+import dev.msntech.msnreports.BugReport;
+import dev.msntech.msnreports.webhook.WebhookEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains queued bug reports and inserts them in a single transaction per flush,
+ * so a burst of reports costs one commit (and one fsync on SQLite) instead of one each.
+ */
+public class GroupCommitWriter {
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final BlockingQueue<PendingReport> queue = new LinkedBlockingQueue<>();
+    private final int flushSize;
+    private final long flushDelayNanos;
+    private final boolean batchedGeneratedKeys;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private static class PendingReport {
+        private final BugReport report;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        private PendingReport(BugReport report) {
+            this.report = report;
+        }
+    }
+
+    /**
+     * @param databaseManager The database manager providing connections and statement binding
+     * @param plugin The owning plugin, used for logging
+     * @param flushSize Maximum number of reports written per transaction
+     * @param flushDelayMillis How long to wait for more reports after the first one arrives
+     * @param batchedGeneratedKeys Whether the driver returns one generated key per batched row
+     */
+    public GroupCommitWriter(DatabaseManager databaseManager, Plugin plugin, int flushSize,
+                             long flushDelayMillis, boolean batchedGeneratedKeys) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+        this.flushSize = Math.max(1, flushSize);
+        this.flushDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushDelayMillis));
+        this.batchedGeneratedKeys = batchedGeneratedKeys;
+        this.writerThread = new Thread(this::run, "msnReports-DB-Writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a report for the next group commit
+     * @param report The report to save
+     * @return future completing with the generated report ID, or -1 if saving failed
+     */
+    public CompletableFuture<Integer> submit(BugReport report) {
+        if (!running) {
+            plugin.getLogger().warning("Database writer is shut down, bug report was not saved");
+            return CompletableFuture.completedFuture(-1);
+        }
+        PendingReport pending = new PendingReport(report);
+        queue.add(pending);
+        // close() may have run since the check; if the writer did not take the report, nobody will
+        if (!running && queue.remove(pending)) {
+            plugin.getLogger().warning("Database writer is shut down, bug report was not saved");
+            pending.future.complete(-1);
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<PendingReport> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingReport first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait up to the flush delay for more reports to share this commit
+                long deadline = System.nanoTime() + flushDelayNanos;
+                while (batch.size() < flushSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingReport next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Shutdown timed out; fail whatever is still queued
+                for (PendingReport pending : batch) {
+                    pending.future.complete(-1);
+                }
+                PendingReport pending;
+                while ((pending = queue.poll()) != null) {
+                    pending.future.complete(-1);
+                }
+                return;
+            } catch (Exception e) {
+                plugin.getLogger().severe("Unexpected error in database writer: " + e.getMessage());
+                for (PendingReport pending : batch) {
+                    pending.future.complete(-1);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingReport> batch) {
+        int[] ids;
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(DatabaseManager.INSERT_REPORT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                ids = batchedGeneratedKeys ? insertBatched(stmt, batch) : insertSequential(stmt, batch);
+                // Discord notifications share the commit, so a saved report is never left unannounced
+                for (int i = 0; i < batch.size(); i++) {
+                    databaseManager.getOutbox().append(conn, WebhookEvent.reportCreated(ids[i], batch.get(i).report));
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                // Binding can fail unchecked (location parsing, encryption); without the rollback
+                // re-enabling auto-commit would commit the rows inserted so far
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // One bad row should not fail the whole group, so fall back to individual inserts
+            plugin.getLogger().warning("Group commit of " + batch.size() + " bug reports failed, retrying individually: " + e.getMessage());
+            for (PendingReport pending : batch) {
+                pending.future.complete(databaseManager.saveBugReport(pending.report));
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(ids[i]);
+        }
+        databaseManager.getOutbox().signal();
+    }
+
+    private int[] insertBatched(PreparedStatement stmt, List<PendingReport> batch) throws SQLException {
+        for (PendingReport pending : batch) {
+            databaseManager.bindReport(stmt, pending.report);
+            stmt.addBatch();
+        }
+        stmt.executeBatch();
+
+        int[] ids = new int[batch.size()];
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            int i = 0;
+            while (rs.next() && i < ids.length) {
+                ids[i++] = rs.getInt(1);
+            }
+            if (i != ids.length) {
+                throw new SQLException("Expected " + ids.length + " generated keys but got " + i);
+            }
+        }
+        return ids;
+    }
+
+    private int[] insertSequential(PreparedStatement stmt, List<PendingReport> batch) throws SQLException {
+        // SQLite only reports the last inserted rowid for a batch, so execute row by row
+        // inside the same transaction; the commit is still shared by the whole group
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            databaseManager.bindReport(stmt, batch.get(i).report);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("No generated key returned for bug report");
+                }
+                ids[i] = rs.getInt(1);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Stops accepting reports and waits for queued ones to be written
+     * @param timeoutMillis Maximum time to wait for the queue to drain
+     */
+    public void close(long timeoutMillis) {
+        running = false;
+        try {
+            writerThread.join(timeoutMillis);
+            if (writerThread.isAlive()) {
+                plugin.getLogger().warning("Timed out waiting for pending bug reports to be saved");
+                writerThread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            writerThread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        // Anything the writer did not get to is reported as failed rather than left waiting
+        PendingReport pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.complete(-1);
+        }
+    }
+}
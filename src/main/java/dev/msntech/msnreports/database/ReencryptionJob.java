@@ -0,0 +1,139 @@
+package dev.msntech.msnreports.database;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that rewrites legacy AES-CBC values in the current AES-GCM format.
+ * Each run handles one id-ordered batch in its own short transaction and then
+ * schedules the next one after a pause, so it never holds the database for long
+ * and stops by itself once no legacy rows are left.
+ */
+public class ReencryptionJob {
+    private static final String[] REPORT_COLUMNS = {"player_name", "player_uuid", "description", "world", "ip_address", "inventory"};
+    private static final String[] COMMENT_COLUMNS = {"author", "content"};
+
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final int batchSize;
+    private final long batchDelayMillis;
+    private int tableIndex = 0;
+    private int lastId = 0;
+    private int total = 0;
+    private int failed = 0;
+
+    public ReencryptionJob(DatabaseManager databaseManager, Plugin plugin, int batchSize, long batchDelayMillis) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchDelayMillis = Math.max(0, batchDelayMillis);
+    }
+
+    public void start() {
+        plugin.getServer().getAsyncScheduler().runNow(plugin, (task) -> runBatch());
+    }
+
+    private void runBatch() {
+        if (!plugin.isEnabled() || databaseManager.isClosed()) {
+            return;
+        }
+
+        String table = tableIndex == 0 ? "bug_reports" : "report_comments";
+        String[] columns = tableIndex == 0 ? REPORT_COLUMNS : COMMENT_COLUMNS;
+        int batchCount;
+        try {
+            batchCount = reencryptBatch(table, columns);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Re-encryption stopped after " + total + " rows: " + e.getMessage());
+            return;
+        }
+
+        if (batchCount < batchSize) {
+            // This table is done, move on to the next one
+            tableIndex++;
+            lastId = 0;
+            if (tableIndex > 1) {
+                if (total > 0 || failed > 0) {
+                    plugin.getLogger().info("Re-encrypted " + total + " rows with AES-GCM" +
+                            (failed > 0 ? " (" + failed + " values could not be decrypted and were left unchanged)" : ""));
+                }
+                return;
+            }
+        }
+
+        plugin.getServer().getAsyncScheduler().runDelayed(plugin, (task) -> runBatch(),
+                batchDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private int reencryptBatch(String table, String[] columns) throws SQLException {
+        // Only rows with at least one legacy value are selected, so a finished table costs one scan
+        StringBuilder legacyCondition = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                legacyCondition.append(" OR ");
+                assignments.append(", ");
+            }
+            legacyCondition.append(columns[i]).append(" NOT LIKE 'v2:%'");
+            assignments.append(columns[i]).append(" = ?");
+        }
+        String selectSql = "SELECT id, " + String.join(", ", columns) + " FROM " + table +
+                " WHERE id > ? AND (" + legacyCondition + ") ORDER BY id LIMIT ?";
+        String updateSql = "UPDATE " + table + " SET " + assignments + " WHERE id = ?";
+
+        int batchCount = 0;
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement update = conn.prepareStatement(updateSql)) {
+                select.setInt(1, lastId);
+                select.setInt(2, batchSize);
+                int updates = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getInt("id");
+                        batchCount++;
+                        if (bindRow(rs, update, columns)) {
+                            update.setInt(columns.length + 1, lastId);
+                            update.addBatch();
+                            updates++;
+                        }
+                    }
+                }
+                if (updates > 0) {
+                    update.executeBatch();
+                }
+                conn.commit();
+                total += updates;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return batchCount;
+    }
+
+    private boolean bindRow(ResultSet rs, PreparedStatement update, String[] columns) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            String value = rs.getString(columns[i]);
+            if (value != null && !databaseManager.isCurrentFormat(value)) {
+                try {
+                    value = databaseManager.reencrypt(value);
+                } catch (RuntimeException e) {
+                    // Leave rows we cannot decrypt untouched rather than encrypting the ciphertext
+                    failed++;
+                    return false;
+                }
+            }
+            update.setString(i + 1, value);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,188 @@
+package dev.msntech.msnreports.database;
+
+import dev.msntech.msnreports.events.ReportEvent;
+import dev.msntech.msnreports.events.ReportEventBus;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries report events through the report_events table. Every server appends
+ * its events and polls for rows past the highest id it has applied, so an event
+ * reaches every server, including ones without players, within a poll interval.
+ *
+ * Auto-increment ids are assigned at insert but become visible at commit, so a
+ * row can appear behind one with a higher id. The cursor follows ids without gaps
+ * right away; rows past a missing id are re-read for a short grace period before
+ * the cursor skips the gap, and applied only once.
+ */
+public class ReportEventLog implements ReportEventBus.Transport {
+    private static final int BATCH_SIZE = 500;
+    private static final long GAP_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final long pollMillis;
+    private final ScheduledExecutorService executor;
+    private ReportEventBus bus;
+    // Only touched on the event thread
+    private long cursor = -1;
+    // Ids read past the cursor, by id, with the time they were first seen
+    private final TreeMap<Long, Long> recentIds = new TreeMap<>();
+    private long lastPurge = System.currentTimeMillis();
+
+    public ReportEventLog(DatabaseManager databaseManager, Plugin plugin, long pollMillis) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+        this.pollMillis = Math.max(100, pollMillis);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "msnReports-Events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start(ReportEventBus bus) {
+        this.bus = bus;
+        executor.scheduleWithFixedDelay(this::poll, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(ReportEvent event) {
+        try {
+            executor.execute(() -> append(event));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, other servers reload their counters when they restart anyway
+        }
+    }
+
+    private void append(ReportEvent event) {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO report_events (origin, payload) VALUES (?, ?)")) {
+            stmt.setString(1, bus.getOrigin());
+            stmt.setString(2, event.encode());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to publish report event: " + e.getMessage());
+        }
+    }
+
+    private void poll() {
+        try {
+            if (databaseManager.isClosed()) {
+                return;
+            }
+            if (cursor < 0) {
+                // Counters and caches start out current, so only events from now on matter
+                cursor = readLatestId();
+                return;
+            }
+            readNewEvents();
+            advanceCursor();
+            purgeIfDue();
+        } catch (Exception e) {
+            // An exception would cancel the scheduled poll, so log and keep going
+            plugin.getLogger().severe("Report event poll failed: " + e.getMessage());
+        }
+    }
+
+    private long readLatestId() throws SQLException {
+        try (Connection conn = databaseManager.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM report_events")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Reads everything past the cursor, paging by id so a burst larger than one
+     * batch is read in the same poll instead of waiting for the cursor to move
+     */
+    private void readNewEvents() throws SQLException {
+        long now = System.currentTimeMillis();
+        long after = cursor;
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, origin, payload FROM report_events WHERE id > ? ORDER BY id LIMIT ?")) {
+            int read;
+            do {
+                stmt.setLong(1, after);
+                stmt.setInt(2, BATCH_SIZE);
+                read = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        if (recentIds.putIfAbsent(id, now) == null) {
+                            bus.receive(rs.getString("origin"), ReportEvent.decode(rs.getString("payload")));
+                        }
+                        after = id;
+                        read++;
+                    }
+                }
+            } while (read == BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Moves the cursor over ids that follow it without a gap, and over a gap once the
+     * row after it was seen longer ago than the grace period; ids still missing by then
+     * are assumed to have been rolled back
+     */
+    private void advanceCursor() {
+        long settledBefore = System.currentTimeMillis() - GAP_GRACE_MILLIS;
+        Iterator<Map.Entry<Long, Long>> iterator = recentIds.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> entry = iterator.next();
+            if (entry.getKey() != cursor + 1 && entry.getValue() > settledBefore) {
+                break;
+            }
+            cursor = entry.getKey();
+            iterator.remove();
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPurge = now;
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM report_events WHERE created_at < ?")) {
+            databaseManager.getDialect().bindTimestamp(stmt, 1, Instant.now().minus(RETENTION));
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to purge report events: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package dev.msntech.msnreports.database;
+
+import dev.msntech.msnreports.models.ReportComment;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies ordered schema migrations and records them in the schema_version table.
+ * MySQL commits DDL implicitly, so every step must be safe to run again after a partial failure.
+ */
+public class SchemaMigrator {
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final boolean mysql;
+    private final List<Migration> migrations = new ArrayList<>();
+
+    // Matches the lines written by the old comments blob: "[timestamp] emoji author: content"
+    private static final Pattern LEGACY_COMMENT = Pattern.compile("^\\[([^\\]]+)\\] (\\S+) ([^:]+): (.*)$");
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @FunctionalInterface
+    interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        private Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    public SchemaMigrator(DatabaseManager databaseManager, Plugin plugin, boolean mysql) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+        this.mysql = mysql;
+
+        // Versions must stay in ascending order and must never be renumbered once released
+        register(1, "Migrate legacy player column", this::migrateLegacyPlayerColumn);
+        register(2, "Use indexable column types for status, game_mode and handler", this::convertHotColumns);
+        register(3, "Add report list indexes", this::addReportListIndexes);
+        register(4, "Add blind index columns for player and world lookups", this::addBlindIndexColumns);
+        register(5, "Move report comments into the report_comments table", this::createReportCommentsTable);
+        register(6, "Add webhook outbox table", this::createWebhookOutboxTable);
+        register(7, "Add shared rate limit table", this::createRateLimitsTable);
+        register(8, "Add report events table", this::createReportEventsTable);
+        register(9, "Add delivery claims to webhook outbox", this::addOutboxClaimColumns);
+    }
+
+    private void register(int version, String description, MigrationStep step) {
+        migrations.add(new Migration(version, description, step));
+    }
+
+    /**
+     * Applies every migration newer than the recorded schema version.
+     * Stops at the first failing step so later steps never run against an unexpected schema.
+     */
+    public void migrate() {
+        try (Connection conn = databaseManager.getConnection()) {
+            ensureVersionTable(conn);
+            int currentVersion = getCurrentVersion(conn);
+            int applied = 0;
+            boolean commentsMoved = currentVersion >= 5;
+
+            for (Migration migration : migrations) {
+                if (migration.version <= currentVersion) {
+                    continue;
+                }
+
+                plugin.getLogger().info("Applying database migration " + migration.version + ": " + migration.description);
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    migration.step.apply(conn);
+                    recordVersion(conn, migration);
+                    conn.commit();
+                    applied++;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    plugin.getLogger().severe("Database migration " + migration.version + " failed: " + e.getMessage());
+                    e.printStackTrace();
+                    return;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+
+            if (commentsMoved) {
+                retryLegacyComments(conn);
+            }
+
+            if (applied == 0) {
+                plugin.getLogger().info("Database schema is up to date (version " + currentVersion + ")");
+            } else {
+                plugin.getLogger().info("Applied " + applied + " database migration(s)");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to migrate database: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void ensureVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY," +
+                    "description VARCHAR(255) NOT NULL," +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+        }
+    }
+
+    private int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void recordVersion(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.executeUpdate();
+        }
+    }
+
+    // --- Migration steps ---
+
+    private void migrateLegacyPlayerColumn(Connection conn) throws SQLException {
+        // Only databases created by very old versions have the single 'player' column
+        if (!columnExists(conn, "bug_reports", "player")) {
+            return;
+        }
+
+        plugin.getLogger().info("Migrating database from old schema...");
+        addColumnIfNotExists(conn, "bug_reports", "player_name", "TEXT");
+        addColumnIfNotExists(conn, "bug_reports", "player_uuid", "TEXT");
+        addColumnIfNotExists(conn, "bug_reports", "ip_address", "TEXT");
+        addColumnIfNotExists(conn, "bug_reports", "game_mode", "TEXT");
+        addColumnIfNotExists(conn, "bug_reports", "health", "DOUBLE");
+        addColumnIfNotExists(conn, "bug_reports", "level", mysql ? "INT" : "INTEGER");
+
+        // Copy data from old 'player' column to new 'player_name' column if player_name is empty
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE bug_reports SET player_name = player WHERE player_name IS NULL OR player_name = ''");
+        }
+    }
+
+    private void convertHotColumns(Connection conn) throws SQLException {
+        // SQLite indexes TEXT columns natively, only MySQL needs bounded types
+        if (!mysql) {
+            return;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE bug_reports SET status = 'OPEN' WHERE status IS NULL");
+            stmt.execute("ALTER TABLE bug_reports " +
+                    "MODIFY status VARCHAR(20) NOT NULL DEFAULT 'OPEN', " +
+                    "MODIFY game_mode VARCHAR(32), " +
+                    "MODIFY handler VARCHAR(64)");
+        }
+    }
+
+    private void addReportListIndexes(Connection conn) throws SQLException {
+        // Serves status filters, keyset pagination and the open report count
+        createIndexIfNotExists(conn, "bug_reports", "idx_bug_reports_status_created", "status, created_at, id");
+        // Serves the unfiltered list and "reports since" queries
+        createIndexIfNotExists(conn, "bug_reports", "idx_bug_reports_created", "created_at");
+    }
+
+    private void addBlindIndexColumns(Connection conn) throws SQLException {
+        // Hex HMAC-SHA256 digests, filled by BlindIndexBackfill for existing rows
+        addColumnIfNotExists(conn, "bug_reports", "player_name_bidx", "VARCHAR(64)");
+        addColumnIfNotExists(conn, "bug_reports", "player_uuid_bidx", "VARCHAR(64)");
+        addColumnIfNotExists(conn, "bug_reports", "world_bidx", "VARCHAR(64)");
+        createIndexIfNotExists(conn, "bug_reports", "idx_bug_reports_player_name_bidx", "player_name_bidx, created_at, id");
+        createIndexIfNotExists(conn, "bug_reports", "idx_bug_reports_player_uuid_bidx", "player_uuid_bidx, created_at, id");
+        createIndexIfNotExists(conn, "bug_reports", "idx_bug_reports_world_bidx", "world_bidx, created_at, id");
+    }
+
+    private void createReportCommentsTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (mysql) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS report_comments (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY," +
+                        "report_id INT NOT NULL," +
+                        "author TEXT NOT NULL," +
+                        "content TEXT NOT NULL," +
+                        "comment_type VARCHAR(32) NOT NULL DEFAULT 'STAFF_NOTE'," +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+            } else {
+                stmt.execute("CREATE TABLE IF NOT EXISTS report_comments (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "report_id INTEGER NOT NULL," +
+                        "author TEXT NOT NULL," +
+                        "content TEXT NOT NULL," +
+                        "comment_type TEXT NOT NULL DEFAULT 'STAFF_NOTE'," +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ")");
+            }
+        }
+        // Comments are always read per report in insertion order
+        createIndexIfNotExists(conn, "report_comments", "idx_report_comments_report", "report_id, id");
+
+        splitLegacyComments(conn);
+    }
+
+    private void createWebhookOutboxTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (mysql) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS webhook_outbox (" +
+                        "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                        "event_type VARCHAR(32) NOT NULL," +
+                        "report_id INT NOT NULL," +
+                        "event_ref VARCHAR(64) NOT NULL DEFAULT ''," +
+                        "payload MEDIUMTEXT NOT NULL," +
+                        "attempts INT NOT NULL DEFAULT 0," +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                        "delivered_at TIMESTAMP NULL DEFAULT NULL" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+            } else {
+                stmt.execute("CREATE TABLE IF NOT EXISTS webhook_outbox (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "event_type TEXT NOT NULL," +
+                        "report_id INTEGER NOT NULL," +
+                        "event_ref TEXT NOT NULL DEFAULT ''," +
+                        "payload TEXT NOT NULL," +
+                        "attempts INTEGER NOT NULL DEFAULT 0," +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                        "delivered_at TIMESTAMP NULL" +
+                        ")");
+            }
+        }
+        // One row per event, so replaying an append never queues a second notification
+        createUniqueIndexIfNotExists(conn, "webhook_outbox", "idx_webhook_outbox_event", "event_type, report_id, event_ref");
+        // Serves the dispatcher's "undelivered in id order" scan
+        createIndexIfNotExists(conn, "webhook_outbox", "idx_webhook_outbox_pending", "delivered_at, id");
+    }
+
+    private void createRateLimitsTable(Connection conn) throws SQLException {
+        // One narrow row per player and action: the UUID as two longs and the epoch millis at which the bucket is full
+        try (Statement stmt = conn.createStatement()) {
+            if (mysql) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS rate_limits (" +
+                        "player_hi BIGINT NOT NULL," +
+                        "player_lo BIGINT NOT NULL," +
+                        "action SMALLINT NOT NULL," +
+                        "full_at BIGINT NOT NULL," +
+                        "PRIMARY KEY (player_hi, player_lo, action)" +
+                        ") ENGINE=InnoDB");
+            } else {
+                stmt.execute("CREATE TABLE IF NOT EXISTS rate_limits (" +
+                        "player_hi INTEGER NOT NULL," +
+                        "player_lo INTEGER NOT NULL," +
+                        "action INTEGER NOT NULL," +
+                        "full_at INTEGER NOT NULL," +
+                        "PRIMARY KEY (player_hi, player_lo, action)" +
+                        ") WITHOUT ROWID");
+            }
+        }
+    }
+
+    private void createReportEventsTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (mysql) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS report_events (" +
+                        "id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                        "origin CHAR(36) NOT NULL," +
+                        "payload VARCHAR(255) NOT NULL," +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+            } else {
+                stmt.execute("CREATE TABLE IF NOT EXISTS report_events (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "origin TEXT NOT NULL," +
+                        "payload TEXT NOT NULL," +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ")");
+            }
+        }
+        // Serves the hourly purge; polling reads by primary key
+        createIndexIfNotExists(conn, "report_events", "idx_report_events_created", "created_at");
+    }
+
+    private void addOutboxClaimColumns(Connection conn) throws SQLException {
+        // Servers sharing the database claim a row before sending it, so each notification goes out once
+        addColumnIfNotExists(conn, "webhook_outbox", "claimed_by", mysql ? "CHAR(36) NULL" : "TEXT");
+        addColumnIfNotExists(conn, "webhook_outbox", "claimed_until", mysql ? "BIGINT NULL" : "INTEGER");
+    }
+
+    /**
+     * Moves legacy comment blobs that migration 5 had to leave behind because they could
+     * not be decrypted, so restoring the key they were written with recovers them on the next start
+     */
+    private void retryLegacyComments(Connection conn) throws SQLException {
+        if (!columnExists(conn, "bug_reports", "comments")) {
+            return;
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            splitLegacyComments(conn);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void splitLegacyComments(Connection conn) throws SQLException {
+        String insertSql = "INSERT INTO report_comments (report_id, author, content, comment_type, created_at) " +
+                "VALUES (?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))";
+        int reports = 0;
+        int comments = 0;
+        int skipped = 0;
+
+        // Runs in the migration transaction, so a failure leaves every blob in place
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, comments FROM bug_reports " +
+                     "WHERE comments IS NOT NULL AND comments <> '' ORDER BY id");
+             PreparedStatement insert = conn.prepareStatement(insertSql);
+             PreparedStatement clear = conn.prepareStatement("UPDATE bug_reports SET comments = NULL WHERE id = ?")) {
+            while (rs.next()) {
+                int reportId = rs.getInt("id");
+                String decrypted;
+                try {
+                    decrypted = databaseManager.decryptOrThrow(rs.getString("comments"));
+                } catch (RuntimeException e) {
+                    // Migrating it would show staff the ciphertext as a comment; keep the blob instead
+                    plugin.getLogger().warning("Could not decrypt the legacy comments of report #" + reportId +
+                            ", leaving them in the comments column");
+                    skipped++;
+                    continue;
+                }
+                for (String line : decrypted.split("\n")) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    ReportComment comment = parseLegacyComment(line);
+                    insert.setInt(1, reportId);
+                    insert.setString(2, databaseManager.encrypt(comment.getAuthor()));
+                    insert.setString(3, databaseManager.encrypt(comment.getContent()));
+                    insert.setString(4, comment.getType().name());
+                    // Written in the server's local time, stored in UTC like CURRENT_TIMESTAMP
+                    Instant createdAt = comment.getInstant();
+                    if (createdAt != null) {
+                        databaseManager.getDialect().bindTimestamp(insert, 5, createdAt);
+                    } else {
+                        insert.setNull(5, Types.TIMESTAMP);
+                    }
+                    insert.addBatch();
+                    comments++;
+                }
+                clear.setInt(1, reportId);
+                clear.addBatch();
+                reports++;
+            }
+            if (comments > 0) {
+                insert.executeBatch();
+            }
+            if (reports > 0) {
+                clear.executeBatch();
+            }
+        }
+
+        if (reports > 0) {
+            plugin.getLogger().info("Moved " + comments + " comments from " + reports + " reports into report_comments");
+        }
+        if (skipped > 0) {
+            plugin.getLogger().warning(skipped + " reports kept their legacy comments because they could not be decrypted. " +
+                    "They are retried on every start; restore the encryption key they were written with to recover them.");
+        }
+    }
+
+    private ReportComment parseLegacyComment(String line) {
+        Matcher matcher = LEGACY_COMMENT.matcher(line);
+        if (!matcher.matches()) {
+            // Keep lines we cannot parse rather than dropping them
+            return new ReportComment("Unknown", line, ReportComment.CommentType.STAFF_NOTE, null);
+        }
+
+        String timestamp = matcher.group(1);
+        try {
+            LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT);
+        } catch (DateTimeParseException e) {
+            timestamp = null;
+        }
+        return new ReportComment(matcher.group(3), matcher.group(4),
+                ReportComment.CommentType.fromEmoji(matcher.group(2)), timestamp);
+    }
+
+    // --- Helpers shared by migration steps ---
+
+    boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), null, table, null)) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void addColumnIfNotExists(Connection conn, String table, String column, String type) throws SQLException {
+        if (columnExists(conn, table, column)) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        }
+        plugin.getLogger().info("Added column: " + table + "." + column);
+    }
+
+    void createIndexIfNotExists(Connection conn, String table, String index, String columns) throws SQLException {
+        createIndexIfNotExists(conn, table, index, columns, false);
+    }
+
+    void createUniqueIndexIfNotExists(Connection conn, String table, String index, String columns) throws SQLException {
+        createIndexIfNotExists(conn, table, index, columns, true);
+    }
+
+    private void createIndexIfNotExists(Connection conn, String table, String index, String columns, boolean unique) throws SQLException {
+        // MySQL has no CREATE INDEX IF NOT EXISTS, so check the metadata on both databases
+        if (indexExists(conn, table, index)) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+        plugin.getLogger().info("Created index: " + index);
+    }
+}
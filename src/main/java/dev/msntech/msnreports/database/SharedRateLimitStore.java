@@ -0,0 +1,179 @@
+package dev.msntech.msnreports.database;
+
+import dev.msntech.msnreports.utils.RateLimiter;
+import dev.msntech.msnreports.utils.RateLimiter.Action;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps rate limit buckets in the rate_limits table of a MySQL database shared by
+ * several servers. A bucket is stored as the epoch millis at which it is full again,
+ * and a use is added with one upsert that the database applies atomically, so uses
+ * on different servers at the same moment are all counted.
+ * All queries run on the async scheduler; the rate limiter only ever waits on its local copy.
+ * Queries for one player are chained, so a refund never overtakes the use it gives back.
+ */
+public class SharedRateLimitStore implements RateLimiter.SharedStore {
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String RECORD_SQL = "INSERT INTO rate_limits (player_hi, player_lo, action, full_at) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE full_at = GREATEST(full_at, ?) + ?";
+    private static final String REFUND_SQL = "UPDATE rate_limits SET full_at = full_at - ? " +
+            "WHERE player_hi = ? AND player_lo = ? AND action = ?";
+    private static final String READ_SQL = "SELECT full_at FROM rate_limits WHERE player_hi = ? AND player_lo = ? AND action = ?";
+    private static final String LOAD_SQL = "SELECT action, full_at FROM rate_limits " +
+            "WHERE player_hi = ? AND player_lo = ? AND full_at > ?";
+
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final AtomicLong lastPurge = new AtomicLong(System.currentTimeMillis());
+    private final Executor async;
+    // Last queued query of each player with queries outstanding
+    private final Map<UUID, CompletableFuture<Void>> queues = new ConcurrentHashMap<>();
+
+    public SharedRateLimitStore(DatabaseManager databaseManager, Plugin plugin) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+        this.async = runnable -> plugin.getServer().getAsyncScheduler().runNow(plugin, (task) -> runnable.run());
+    }
+
+    @Override
+    public void record(Action action, UUID playerId, long refillMillis, LongConsumer onStored) {
+        enqueue(playerId, () -> {
+            long fullAt = recordNow(action, playerId, refillMillis);
+            if (fullAt > 0) {
+                onStored.accept(fullAt);
+            }
+            purgeIfDue();
+        });
+    }
+
+    @Override
+    public void refund(Action action, UUID playerId, long refillMillis) {
+        enqueue(playerId, () -> refundNow(action, playerId, refillMillis));
+    }
+
+    @Override
+    public void load(UUID playerId, BiConsumer<Action, Long> onLoaded) {
+        enqueue(playerId, () -> loadNow(playerId, onLoaded));
+    }
+
+    /**
+     * Runs the query on the async scheduler once the player's earlier queries have finished
+     */
+    private void enqueue(UUID playerId, Runnable query) {
+        CompletableFuture<Void> queued = queues.compute(playerId, (id, tail) ->
+                (tail == null ? CompletableFuture.<Void>completedFuture(null) : tail)
+                        .thenRunAsync(query, async)
+                        // A failed query must not stall the ones after it
+                        .exceptionally(error -> {
+                            plugin.getLogger().severe("Rate limit query for " + id + " failed: " + error.getMessage());
+                            return null;
+                        }));
+        queued.whenComplete((result, error) -> queues.remove(playerId, queued));
+    }
+
+    /**
+     * @return The stored time at which the bucket is full again, or -1 if the update failed
+     */
+    private long recordNow(Action action, UUID playerId, long refillMillis) {
+        if (databaseManager.isClosed()) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+
+        try (Connection conn = databaseManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(RECORD_SQL)) {
+                stmt.setLong(1, playerId.getMostSignificantBits());
+                stmt.setLong(2, playerId.getLeastSignificantBits());
+                stmt.setInt(3, action.getCode());
+                stmt.setLong(4, now + refillMillis);
+                stmt.setLong(5, now);
+                stmt.setLong(6, refillMillis);
+                stmt.executeUpdate();
+            }
+            // Read back on the same connection, which includes uses recorded by other servers
+            try (PreparedStatement stmt = conn.prepareStatement(READ_SQL)) {
+                stmt.setLong(1, playerId.getMostSignificantBits());
+                stmt.setLong(2, playerId.getLeastSignificantBits());
+                stmt.setInt(3, action.getCode());
+                ResultSet rs = stmt.executeQuery();
+                return rs.next() ? rs.getLong("full_at") : -1;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to store rate limit for " + playerId + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private void refundNow(Action action, UUID playerId, long refillMillis) {
+        if (databaseManager.isClosed()) {
+            return;
+        }
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REFUND_SQL)) {
+            stmt.setLong(1, refillMillis);
+            stmt.setLong(2, playerId.getMostSignificantBits());
+            stmt.setLong(3, playerId.getLeastSignificantBits());
+            stmt.setInt(4, action.getCode());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to refund rate limit for " + playerId + ": " + e.getMessage());
+        }
+    }
+
+    private void loadNow(UUID playerId, BiConsumer<Action, Long> onLoaded) {
+        if (databaseManager.isClosed()) {
+            return;
+        }
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(LOAD_SQL)) {
+            stmt.setLong(1, playerId.getMostSignificantBits());
+            stmt.setLong(2, playerId.getLeastSignificantBits());
+            stmt.setLong(3, System.currentTimeMillis());
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Action action = Action.fromCode(rs.getInt("action"));
+                if (action != null) {
+                    onLoaded.accept(action, rs.getLong("full_at"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load rate limits for " + playerId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes buckets that are full again, at most once an hour per server
+     */
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last < PURGE_INTERVAL_MILLIS || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM rate_limits WHERE full_at <= ?")) {
+            stmt.setLong(1, now);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to purge rate limits: " + e.getMessage());
+        }
+    }
+}
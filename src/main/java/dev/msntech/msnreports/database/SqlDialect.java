@@ -0,0 +1,78 @@
+package dev.msntech.msnreports.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * SQL differences between the supported databases. Time windows are always
+ * expressed as a plain comparison on the column with a bound value, so both
+ * databases can use the created_at indexes and reuse the prepared statement.
+ */
+public enum SqlDialect {
+    SQLITE {
+        @Override
+        public String epochSeconds(String column) {
+            return "CAST(strftime('%s', " + column + ") AS INTEGER)";
+        }
+
+        @Override
+        public void bindTimestamp(PreparedStatement stmt, int index, Instant instant) throws SQLException {
+            // CURRENT_TIMESTAMP stores UTC text, which compares correctly as a string
+            stmt.setString(index, SQLITE_TIMESTAMP.format(instant));
+        }
+
+        @Override
+        public String insertIgnore() {
+            return "INSERT OR IGNORE INTO ";
+        }
+    },
+    MYSQL {
+        @Override
+        public String epochSeconds(String column) {
+            return "UNIX_TIMESTAMP(" + column + ")";
+        }
+
+        @Override
+        public void bindTimestamp(PreparedStatement stmt, int index, Instant instant) throws SQLException {
+            stmt.setTimestamp(index, Timestamp.from(instant));
+        }
+
+        @Override
+        public String insertIgnore() {
+            return "INSERT IGNORE INTO ";
+        }
+    };
+
+    private static final DateTimeFormatter SQLITE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    public static SqlDialect fromType(String databaseType) {
+        return "mysql".equalsIgnoreCase(databaseType) ? MYSQL : SQLITE;
+    }
+
+    /**
+     * @return Expression converting a timestamp column to epoch seconds
+     */
+    public abstract String epochSeconds(String column);
+
+    /**
+     * Binds an instant so it compares correctly against timestamp columns
+     */
+    public abstract void bindTimestamp(PreparedStatement stmt, int index, Instant instant) throws SQLException;
+
+    /**
+     * @return Insert prefix that skips rows violating a unique key, followed by the table name
+     */
+    public abstract String insertIgnore();
+
+    /**
+     * @return Predicate matching rows at or after a bound instant, bind with {@link #bindTimestamp}
+     */
+    public String since(String column) {
+        return column + " >= ?";
+    }
+}
@@ -0,0 +1,259 @@
+package dev.msntech.msnreports.database;
+
+import dev.msntech.msnreports.webhook.WebhookDispatcher.Channel;
+import dev.msntech.msnreports.webhook.WebhookEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Discord notifications waiting to be delivered. Events are appended on the same
+ * connection and transaction as the change they describe, so a committed report,
+ * status change or comment always has its notification stored with it. Payloads
+ * are encrypted like the report columns, since they repeat the same values.
+ */
+public class WebhookOutbox {
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final String appendSql;
+    private volatile Runnable listener;
+
+    public static class Entry {
+        private final long id;
+        private final int attempts;
+        private final WebhookEvent event;
+
+        private Entry(long id, int attempts, WebhookEvent event) {
+            this.id = id;
+            this.attempts = attempts;
+            this.event = event;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public WebhookEvent getEvent() {
+            return event;
+        }
+    }
+
+    WebhookOutbox(DatabaseManager databaseManager, Plugin plugin) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+        // The unique key on (event_type, report_id, event_ref) turns a repeated append into a no-op
+        this.appendSql = databaseManager.getDialect().insertIgnore() +
+                "webhook_outbox (event_type, report_id, event_ref, payload) VALUES (?, ?, ?, ?)";
+    }
+
+    /**
+     * Appends an event as part of the caller's transaction. Events for disabled
+     * webhooks or webhooks without a Discord URL are skipped, so they never pile
+     * up waiting for delivery.
+     * Call {@link #signal()} once the transaction has committed.
+     */
+    public void append(Connection conn, WebhookEvent event) throws SQLException {
+        if (!isEnabled(event.getType().getChannel())) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(appendSql)) {
+            stmt.setString(1, event.getType().name());
+            stmt.setInt(2, event.getReportId());
+            stmt.setString(3, event.getRef());
+            stmt.setString(4, databaseManager.encrypt(event.encodeFields()));
+            stmt.executeUpdate();
+        }
+    }
+
+    private boolean isEnabled(Channel channel) {
+        String path = "discord.webhooks." + channel.getConfigKey();
+        return plugin.getConfig().getBoolean("discord.enabled", true)
+                && plugin.getConfig().getBoolean(path + ".enabled", true)
+                && plugin.getConfig().getString(path + ".url", "").startsWith("https://discord.com/api/webhooks/");
+    }
+
+    /**
+     * Sets the callback told about newly committed events
+     */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Tells the dispatcher that new events were committed, so it need not wait for its next poll
+     */
+    public void signal() {
+        Runnable current = listener;
+        if (current != null) {
+            current.run();
+        }
+    }
+
+    /**
+     * Reads undelivered events that no server currently holds a claim on, in the order they were written
+     * @param limit Maximum number of events to return
+     * @param maxAttempts Events that already failed this often are skipped
+     * @param types Only events of these types are read, so events for a webhook that
+     *              cannot send right now never crowd out the others
+     */
+    public List<Entry> fetchPending(int limit, int maxAttempts, Collection<WebhookEvent.Type> types) {
+        List<Entry> entries = new ArrayList<>();
+        if (types.isEmpty()) {
+            return entries;
+        }
+        String sql = "SELECT id, event_type, report_id, event_ref, payload, attempts FROM webhook_outbox " +
+                "WHERE delivered_at IS NULL AND attempts < ? AND (claimed_until IS NULL OR claimed_until < ?) " +
+                "AND event_type IN (" + String.join(", ", Collections.nCopies(types.size(), "?")) + ") " +
+                "ORDER BY id LIMIT ?";
+
+        try (Connection conn = databaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setInt(index++, maxAttempts);
+            stmt.setLong(index++, System.currentTimeMillis());
+            for (WebhookEvent.Type type : types) {
+                stmt.setString(index++, type.name());
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            List<Object[]> rows = new ArrayList<>();
+            List<String> payloads = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(new Object[] {rs.getLong("id"), rs.getString("event_type"), rs.getInt("report_id"),
+                        rs.getString("event_ref"), rs.getInt("attempts")});
+                payloads.add(rs.getString("payload"));
+            }
+
+            String[] decrypted = databaseManager.decryptAll(payloads.toArray(new String[0]));
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                WebhookEvent.Type type = WebhookEvent.Type.fromString((String) row[1]);
+                if (type == null) {
+                    continue; // Written by a newer version of the plugin
+                }
+                WebhookEvent event = new WebhookEvent(type, (Integer) row[2], (String) row[3],
+                        WebhookEvent.decodeFields(decrypted[i]));
+                entries.add(new Entry((Long) row[0], (Integer) row[4], event));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to read webhook outbox: " + e.getMessage());
+        }
+
+        return entries;
+    }
+
+    /**
+     * Claims an event for delivery by this server. Only one server can hold the
+     * claim at a time, so servers sharing the database never send an event twice.
+     * @param owner Identifies the claiming dispatcher
+     * @param leaseMillis How long the claim holds unless renewed
+     * @return true if this server now holds the claim
+     */
+    public boolean claim(long id, String owner, long leaseMillis) {
+        String sql = "UPDATE webhook_outbox SET claimed_by = ?, claimed_until = ? " +
+                "WHERE id = ? AND delivered_at IS NULL AND (claimed_until IS NULL OR claimed_until < ?)";
+        long now = System.currentTimeMillis();
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, owner);
+            stmt.setLong(2, now + leaseMillis);
+            stmt.setLong(3, id);
+            stmt.setLong(4, now);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to claim webhook outbox entry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Extends every claim the owner still holds on undelivered events
+     */
+    public void renewClaims(String owner, long leaseMillis) {
+        String sql = "UPDATE webhook_outbox SET claimed_until = ? WHERE claimed_by = ? AND delivered_at IS NULL";
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, System.currentTimeMillis() + leaseMillis);
+            stmt.setString(2, owner);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to renew webhook outbox claims: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether any server has delivered an event
+     * @return true once Discord accepted it, false if still pending or unknown
+     */
+    public boolean isDelivered(WebhookEvent.Type type, int reportId, String ref) {
+        String sql = "SELECT delivered_at FROM webhook_outbox WHERE event_type = ? AND report_id = ? AND event_ref = ?";
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, type.name());
+            stmt.setInt(2, reportId);
+            stmt.setString(3, ref);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getObject("delivered_at") != null;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to check webhook outbox entry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean markDelivered(long id) {
+        return update("UPDATE webhook_outbox SET delivered_at = CURRENT_TIMESTAMP WHERE id = ?", id);
+    }
+
+    public boolean recordFailure(long id) {
+        // Released, so the next attempt may come from any server
+        return update("UPDATE webhook_outbox SET attempts = attempts + 1, claimed_by = NULL, claimed_until = NULL " +
+                "WHERE id = ?", id);
+    }
+
+    private boolean update(String sql, long id) {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to update webhook outbox: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Removes events created before the given instant: delivered, abandoned, and
+     * undelivered ones too, which waited on an unconfigured webhook for too long
+     * @return Number of removed events, or -1 if the delete failed
+     */
+    public int purge(Instant before) {
+        SqlDialect dialect = databaseManager.getDialect();
+        String sql = "DELETE FROM webhook_outbox WHERE created_at < ?";
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            dialect.bindTimestamp(stmt, 1, before);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to purge webhook outbox: " + e.getMessage());
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.msntech.msnreports.events;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Sends events through the proxy with the BungeeCord "Forward" message, which
+ * Velocity supports when bungee-plugin-message-channel is enabled. Plugin messages
+ * ride on a player's connection: an event published while this server is empty is
+ * dropped, and servers without players do not receive it. Use the database
+ * transport where every event has to arrive.
+ */
+public class PluginMessageTransport implements ReportEventBus.Transport, PluginMessageListener {
+    private static final String CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "msnReports:events";
+
+    private final Plugin plugin;
+    private volatile ReportEventBus bus;
+
+    public PluginMessageTransport(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void start(ReportEventBus bus) {
+        this.bus = bus;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL, this);
+    }
+
+    @Override
+    public void publish(ReportEvent event) {
+        Iterator<? extends Player> players = plugin.getServer().getOnlinePlayers().iterator();
+        if (!players.hasNext()) {
+            return;
+        }
+        Player carrier = players.next();
+
+        byte[] message;
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+            bodyOut.writeUTF(bus.getOrigin());
+            bodyOut.writeUTF(event.encode());
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(SUBCHANNEL);
+            out.writeShort(body.size());
+            out.write(body.toByteArray());
+            message = bytes.toByteArray();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to encode report event: " + e.getMessage());
+            return;
+        }
+
+        carrier.getScheduler().run(plugin, (task) -> carrier.sendPluginMessage(plugin, CHANNEL, message), null);
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!CHANNEL.equals(channel)) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+            if (!SUBCHANNEL.equals(in.readUTF())) {
+                return;
+            }
+            byte[] body = new byte[in.readUnsignedShort()];
+            in.readFully(body);
+
+            DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+            String origin = bodyIn.readUTF();
+            bus.receive(origin, ReportEvent.decode(bodyIn.readUTF()));
+        } catch (IOException e) {
+            plugin.getLogger().warning("Ignoring malformed report event: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL, this);
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL);
+    }
+}
@@ -0,0 +1,114 @@
+package dev.msntech.msnreports.events;
+
+import dev.msntech.msnreports.models.ReportStatus;
+
+/**
+ * A report change announced to the other servers. It carries only what their
+ * caches, counters and staff notifications need, never report contents, since
+ * it may travel through the proxy or be stored unencrypted.
+ */
+public class ReportEvent {
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        COMMENT_ADDED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int reportId;
+    private final ReportStatus oldStatus;
+    private final ReportStatus status;
+    private final long createdAtMillis;
+    private final String actor;
+
+    private ReportEvent(Type type, int reportId, ReportStatus oldStatus, ReportStatus status,
+                        long createdAtMillis, String actor) {
+        this.type = type;
+        this.reportId = reportId;
+        this.oldStatus = oldStatus;
+        this.status = status;
+        this.createdAtMillis = createdAtMillis;
+        this.actor = actor == null ? "" : actor;
+    }
+
+    public static ReportEvent created(int reportId, long createdAtMillis) {
+        return new ReportEvent(Type.CREATED, reportId, null, ReportStatus.OPEN, createdAtMillis, "");
+    }
+
+    public static ReportEvent statusChanged(int reportId, ReportStatus oldStatus, ReportStatus newStatus, String handler) {
+        return new ReportEvent(Type.STATUS_CHANGED, reportId, oldStatus, newStatus, 0, handler);
+    }
+
+    public static ReportEvent commentAdded(int reportId, String author) {
+        return new ReportEvent(Type.COMMENT_ADDED, reportId, null, null, 0, author);
+    }
+
+    /**
+     * @param status Status of the report when it was deleted
+     * @param createdAtMillis Creation time of the deleted report
+     */
+    public static ReportEvent deleted(int reportId, ReportStatus status, long createdAtMillis, String deletedBy) {
+        return new ReportEvent(Type.DELETED, reportId, null, status, createdAtMillis, deletedBy);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getReportId() {
+        return reportId;
+    }
+
+    /**
+     * @return Status before a status change, null for other events
+     */
+    public ReportStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    /**
+     * @return New status, or the status a deleted report had; null for comments
+     */
+    public ReportStatus getStatus() {
+        return status;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * @return Name of the player who made the change, empty if unknown
+     */
+    public String getActor() {
+        return actor;
+    }
+
+    /**
+     * Serializes the event as tab separated fields; player names and status names never contain tabs
+     */
+    public String encode() {
+        return type.name() + '\t' + reportId + '\t' + (oldStatus == null ? "" : oldStatus.name()) + '\t' +
+                (status == null ? "" : status.name()) + '\t' + createdAtMillis + '\t' + actor;
+    }
+
+    /**
+     * Reverses {@link #encode()}
+     * @return The event, or null if it was written by a newer version or is malformed
+     */
+    public static ReportEvent decode(String encoded) {
+        String[] parts = encoded.split("\t", -1);
+        if (parts.length < 6) {
+            return null;
+        }
+        try {
+            return new ReportEvent(Type.valueOf(parts[0]), Integer.parseInt(parts[1]),
+                    parts[2].isEmpty() ? null : ReportStatus.valueOf(parts[2]),
+                    parts[3].isEmpty() ? null : ReportStatus.valueOf(parts[3]),
+                    Long.parseLong(parts[4]), parts[5]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dev.msntech.msnreports.events;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Shares report changes between servers that use the same database, so each one
+ * can update its caches and counters and notify its own staff without re-reading
+ * the reports. Events a server published itself are never handed back to it.
+ */
+public class ReportEventBus {
+    /**
+     * Carries events between servers
+     */
+    public interface Transport {
+        /**
+         * Starts receiving; every event from another server is passed to {@link ReportEventBus#receive}
+         */
+        void start(ReportEventBus bus);
+
+        /**
+         * Sends an event to the other servers without blocking the caller
+         */
+        void publish(ReportEvent event);
+
+        void close();
+    }
+
+    private final Plugin plugin;
+    private final Transport transport;
+    private final Consumer<ReportEvent> handler;
+    // Identifies this server for as long as the bus runs
+    private final String origin = UUID.randomUUID().toString();
+
+    /**
+     * @param handler Applies events from other servers, called on the transport's thread
+     */
+    public ReportEventBus(Plugin plugin, Transport transport, Consumer<ReportEvent> handler) {
+        this.plugin = plugin;
+        this.transport = transport;
+        this.handler = handler;
+    }
+
+    public void start() {
+        transport.start(this);
+    }
+
+    public void publish(ReportEvent event) {
+        transport.publish(event);
+    }
+
+    /**
+     * Called by the transport for every event it receives
+     * @param origin Origin of the bus that published the event
+     */
+    public void receive(String origin, ReportEvent event) {
+        if (event == null || this.origin.equals(origin)) {
+            return;
+        }
+        try {
+            handler.accept(event);
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to apply report event from another server: " + e.getMessage());
+        }
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void close() {
+        transport.close();
+    }
+}
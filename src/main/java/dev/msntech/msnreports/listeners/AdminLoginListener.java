@@ -1,7 +1,8 @@
 package dev.msntech.msnreports.listeners;
 
 import dev.msntech.msnreports.App;
-import dev.msntech.msnreports.utils.ChatUtils;
+import dev.msntech.msnreports.managers.ReportCounters;
+import dev.msntech.msnreports.models.ReportStatus;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -12,11 +13,6 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-
 public class AdminLoginListener implements Listener {
     private final App plugin;
 
@@ -45,42 +41,20 @@ public class AdminLoginListener implements Listener {
     }
 
     private void checkForUpdates(Player player) {
-        try {
-            int openReports = getOpenReportsCount();
-            int recentReports = getRecentReportsCount(24); // Last 24 hours
-            
-            if (openReports > 0 || recentReports > 0) {
-                sendNotification(player, openReports, recentReports);
-            }
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to check for report updates: " + e.getMessage());
-        }
-    }
-
-    private int getOpenReportsCount() throws SQLException {
-        String sql = "SELECT COUNT(*) FROM bug_reports WHERE status = 'OPEN'";
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+        ReportCounters counters = plugin.getReportManager().getCounters();
+        if (!counters.isLoaded()) {
+            // Counters are still loading right after startup or a reload
+            counters.whenLoaded(() -> player.getScheduler().run(plugin, (task) -> checkForUpdates(player), null));
+            return;
         }
-        return 0;
-    }
-
-    private int getRecentReportsCount(int hours) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM bug_reports WHERE created_at >= datetime('now', '-" + hours + " hours')";
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
+        
+        // Served from memory, no database access on the player's thread
+        int openReports = counters.getCount(ReportStatus.OPEN);
+        int recentReports = counters.getRecentCount(); // Last 24 hours
+        
+        if (openReports > 0 || recentReports > 0) {
+            sendNotification(player, openReports, recentReports);
         }
-        return 0;
     }
 
     private void sendNotification(Player player, int openReports, int recentReports) {
@@ -0,0 +1,21 @@
+package dev.msntech.msnreports.listeners;
+
+import dev.msntech.msnreports.App;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+public class RateLimitSyncListener implements Listener {
+    private final App plugin;
+
+    public RateLimitSyncListener(App plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Brings in cooldowns from other servers before the player can run a command here
+        plugin.getRateLimiter().prefetch(event.getPlayer().getUniqueId());
+    }
+}
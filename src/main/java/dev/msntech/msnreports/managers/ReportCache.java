@@ -0,0 +1,187 @@
+package dev.msntech.msnreports.managers;
+
+import dev.msntech.msnreports.models.ReportComment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of decrypted report details and comments, so staff viewing the
+ * same reports while triaging skip the database and decryption. Bounded by entry
+ * count and by an approximate size in bytes, evicting the least recently used
+ * report first. Writes go through the cache so cached reports stay current.
+ */
+public class ReportCache {
+    // Rough per-entry cost of the map node, entry object and collections
+    private static final int ENTRY_OVERHEAD = 160;
+    private static final int STRING_OVERHEAD = 40;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes = 0;
+    private long modifications = 0;
+
+    private static class Entry {
+        private Map<String, String> details;
+        private List<ReportComment> comments;
+        private long bytes;
+    }
+
+    /**
+     * @param maxEntries Maximum number of cached reports, 0 disables the cache
+     * @param maxBytes Approximate maximum memory used by cached values
+     */
+    public ReportCache(int maxEntries, long maxBytes) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    public synchronized Map<String, String> getDetails(int reportId) {
+        Entry entry = entries.get(reportId);
+        return record(entry == null ? null : entry.details);
+    }
+
+    public synchronized List<ReportComment> getComments(int reportId) {
+        Entry entry = entries.get(reportId);
+        return record(entry == null ? null : entry.comments);
+    }
+
+    private <T> T record(T value) {
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Call before reading a report from the database; pass the result to the put methods.
+     * A load that overlaps with a write is not cached, so stale rows never replace fresh ones.
+     */
+    public synchronized long beginLoad() {
+        return modifications;
+    }
+
+    public synchronized void putDetails(int reportId, Map<String, String> details, long loadStamp) {
+        if (details == null || loadStamp != modifications || maxEntries == 0) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(reportId, id -> new Entry());
+        entry.details = Collections.unmodifiableMap(new HashMap<>(details));
+        reweigh(entry);
+        evict();
+    }
+
+    public synchronized void putComments(int reportId, List<ReportComment> comments, long loadStamp) {
+        if (comments == null || loadStamp != modifications || maxEntries == 0) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(reportId, id -> new Entry());
+        entry.comments = List.copyOf(comments);
+        reweigh(entry);
+        evict();
+    }
+
+    /**
+     * Applies a status change to the cached report, if present
+     */
+    public synchronized void updateStatus(int reportId, String status) {
+        modifications++;
+        Entry entry = entries.get(reportId);
+        if (entry != null && entry.details != null) {
+            Map<String, String> details = new HashMap<>(entry.details);
+            details.put("status", status);
+            entry.details = Collections.unmodifiableMap(details);
+        }
+    }
+
+    /**
+     * Appends a new comment to the cached comments, if present
+     */
+    public synchronized void addComment(int reportId, ReportComment comment) {
+        modifications++;
+        Entry entry = entries.get(reportId);
+        if (entry != null && entry.comments != null) {
+            List<ReportComment> comments = new ArrayList<>(entry.comments);
+            comments.add(comment);
+            entry.comments = Collections.unmodifiableList(comments);
+            reweigh(entry);
+            evict();
+        }
+    }
+
+    public synchronized void invalidate(int reportId) {
+        modifications++;
+        Entry entry = entries.remove(reportId);
+        if (entry != null) {
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        modifications++;
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private void reweigh(Entry entry) {
+        long bytes = ENTRY_OVERHEAD;
+        if (entry.details != null) {
+            for (Map.Entry<String, String> field : entry.details.entrySet()) {
+                bytes += sizeOf(field.getKey()) + sizeOf(field.getValue());
+            }
+        }
+        if (entry.comments != null) {
+            for (ReportComment comment : entry.comments) {
+                bytes += sizeOf(comment.getAuthor()) + sizeOf(comment.getContent()) + sizeOf(comment.getTimestamp());
+            }
+        }
+        totalBytes += bytes - entry.bytes;
+        entry.bytes = bytes;
+    }
+
+    private static long sizeOf(String value) {
+        // Latin-1 strings are stored compactly, so one byte per char is a fair estimate
+        return value == null ? 0 : STRING_OVERHEAD + value.length();
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            totalBytes -= iterator.next().bytes;
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+}
@@ -0,0 +1,195 @@
+package dev.msntech.msnreports.managers;
+
+import dev.msntech.msnreports.database.DatabaseManager;
+import dev.msntech.msnreports.database.SqlDialect;
+import dev.msntech.msnreports.models.ReportStatus;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory report counts per status plus an hourly histogram of the last 24 hours.
+ * Loaded from the database, then kept current by ReportManager on every insert,
+ * status change and delete, so reading them never touches the database.
+ * Changes recorded while a load is running are replayed on top of its result.
+ */
+public class ReportCounters {
+    private static final int HOURS = 24;
+
+    private final DatabaseManager databaseManager;
+    private final Plugin plugin;
+    private final Map<ReportStatus, Integer> statusCounts = new EnumMap<>(ReportStatus.class);
+    // Ring buffer indexed by epoch hour; each slot remembers which hour it currently counts
+    private final long[] bucketHours = new long[HOURS];
+    private final int[] bucketCounts = new int[HOURS];
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private final Object loadLock = new Object();
+    // Changes recorded since the running load started, null when no load is running
+    private List<Runnable> journal = null;
+
+    public ReportCounters(DatabaseManager databaseManager, Plugin plugin) {
+        this.databaseManager = databaseManager;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Loads the counts from the database, off the server threads. Can run again later
+     * to pick up changes made by other servers on a shared database.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            loadNow();
+        }
+    }
+
+    private void loadNow() {
+        synchronized (this) {
+            // Started before the queries, so a change can at worst be counted twice if it
+            // commits just before they run, instead of being lost if it commits during them
+            journal = new ArrayList<>();
+        }
+        Map<ReportStatus, Integer> counts = new EnumMap<>(ReportStatus.class);
+        long[] hours = new long[HOURS];
+        int[] hourCounts = new int[HOURS];
+
+        try (Connection conn = databaseManager.getReadConnection();
+             Statement stmt = conn.createStatement()) {
+            // Both queries are served by the status and created_at indexes
+            try (ResultSet rs = stmt.executeQuery("SELECT status, COUNT(*) FROM bug_reports GROUP BY status")) {
+                while (rs.next()) {
+                    counts.merge(ReportStatus.fromString(rs.getString(1)), rs.getInt(2), Integer::sum);
+                }
+            }
+
+            SqlDialect dialect = databaseManager.getDialect();
+            String recentSql = "SELECT " + dialect.epochSeconds("created_at") + " FROM bug_reports WHERE " + dialect.since("created_at");
+            try (PreparedStatement recent = conn.prepareStatement(recentSql)) {
+                dialect.bindTimestamp(recent, 1, Instant.now().minus(Duration.ofHours(HOURS)));
+                ResultSet rs = recent.executeQuery();
+                while (rs.next()) {
+                    long hour = TimeUnit.SECONDS.toHours(rs.getLong(1));
+                    int index = (int) Math.floorMod(hour, (long) HOURS);
+                    if (hours[index] != hour) {
+                        hours[index] = hour;
+                        hourCounts[index] = 0;
+                    }
+                    hourCounts[index]++;
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load report counters: " + e.getMessage());
+            if (loaded.isDone()) {
+                // A failed reload keeps the counts it would have replaced
+                synchronized (this) {
+                    journal = null;
+                }
+                return;
+            }
+        }
+
+        synchronized (this) {
+            statusCounts.clear();
+            statusCounts.putAll(counts);
+            System.arraycopy(hours, 0, bucketHours, 0, HOURS);
+            System.arraycopy(hourCounts, 0, bucketCounts, 0, HOURS);
+            journal.forEach(Runnable::run);
+            journal = null;
+        }
+        loaded.complete(null);
+    }
+
+    public boolean isLoaded() {
+        return loaded.isDone();
+    }
+
+    /**
+     * Runs the action once the initial load has finished, immediately if it already has
+     */
+    public void whenLoaded(Runnable action) {
+        loaded.thenRun(action);
+    }
+
+    /**
+     * Records a newly created report
+     * @param createdAtMillis Creation time of the report
+     */
+    public synchronized void recordCreated(ReportStatus status, long createdAtMillis) {
+        applyCreated(status, createdAtMillis);
+        if (journal != null) {
+            journal.add(() -> applyCreated(status, createdAtMillis));
+        }
+    }
+
+    private void applyCreated(ReportStatus status, long createdAtMillis) {
+        statusCounts.merge(status, 1, Integer::sum);
+        long hour = TimeUnit.MILLISECONDS.toHours(createdAtMillis);
+        int index = (int) Math.floorMod(hour, (long) HOURS);
+        if (bucketHours[index] != hour) {
+            bucketHours[index] = hour;
+            bucketCounts[index] = 0;
+        }
+        bucketCounts[index]++;
+    }
+
+    public synchronized void recordStatusChange(ReportStatus oldStatus, ReportStatus newStatus) {
+        applyStatusChange(oldStatus, newStatus);
+        if (journal != null) {
+            journal.add(() -> applyStatusChange(oldStatus, newStatus));
+        }
+    }
+
+    private void applyStatusChange(ReportStatus oldStatus, ReportStatus newStatus) {
+        statusCounts.merge(oldStatus, -1, Integer::sum);
+        statusCounts.merge(newStatus, 1, Integer::sum);
+    }
+
+    /**
+     * Records a deleted report
+     * @param createdAtMillis Creation time of the deleted report
+     */
+    public synchronized void recordDeleted(ReportStatus status, long createdAtMillis) {
+        applyDeleted(status, createdAtMillis);
+        if (journal != null) {
+            journal.add(() -> applyDeleted(status, createdAtMillis));
+        }
+    }
+
+    private void applyDeleted(ReportStatus status, long createdAtMillis) {
+        statusCounts.merge(status, -1, Integer::sum);
+        long hour = TimeUnit.MILLISECONDS.toHours(createdAtMillis);
+        int index = (int) Math.floorMod(hour, (long) HOURS);
+        if (bucketHours[index] == hour && bucketCounts[index] > 0) {
+            bucketCounts[index]--;
+        }
+    }
+
+    public synchronized int getCount(ReportStatus status) {
+        return Math.max(0, statusCounts.getOrDefault(status, 0));
+    }
+
+    /**
+     * @return Reports created within the current hour and the 23 before it
+     */
+    public synchronized int getRecentCount() {
+        long currentHour = TimeUnit.MILLISECONDS.toHours(System.currentTimeMillis());
+        int total = 0;
+        for (int i = 0; i < HOURS; i++) {
+            if (bucketHours[i] > currentHour - HOURS) {
+                total += bucketCounts[i];
+            }
+        }
+        return total;
+    }
+}
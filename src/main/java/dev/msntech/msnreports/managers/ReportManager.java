@@ -1,8 +1,18 @@
 package dev.msntech.msnreports.managers;
 
 import dev.msntech.msnreports.App;
-import dev.msntech.msnreports.DiscordWebhookSender;
+import dev.msntech.msnreports.BugReport;
+import dev.msntech.msnreports.database.SqlDialect;
+import dev.msntech.msnreports.database.WebhookOutbox;
+import dev.msntech.msnreports.events.ReportEvent;
+import dev.msntech.msnreports.events.ReportEventBus;
+import dev.msntech.msnreports.models.ReportComment;
+import dev.msntech.msnreports.models.ReportCursor;
+import dev.msntech.msnreports.models.ReportFilter;
+import dev.msntech.msnreports.models.ReportPage;
 import dev.msntech.msnreports.models.ReportStatus;
+import dev.msntech.msnreports.webhook.WebhookEvent;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import org.bukkit.entity.Player;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -11,16 +21,221 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class ReportManager {
+    private static final String LIST_COLUMNS_SQL = "SELECT id, player_name, description, status, created_at FROM bug_reports";
     private final App plugin;
+    private final ExecutorService queryExecutor;
+    private final ReportCache cache;
+    private final ReportCounters counters;
+    private ScheduledTask counterRefreshTask;
 
     public ReportManager(App plugin) {
         this.plugin = plugin;
+        this.cache = new ReportCache(plugin.getConfig().getInt("cache.reports.max-entries", 200),
+                plugin.getConfig().getLong("cache.reports.max-size-kb", 4096) * 1024);
+        
+        // Bounded pool for database work requested by commands, so staff commands never block the server thread
+        int threads = Math.max(1, plugin.getConfig().getInt("database.query-threads", 4));
+        int queueSize = Math.max(1, plugin.getConfig().getInt("database.query-queue-size", 100));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.queryExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "msnReports-Query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        this.counters = new ReportCounters(plugin.getDatabaseManager(), plugin);
+        queryExecutor.execute(counters::load);
+        
+        // Other servers on a shared MySQL database change the counts too; without the
+        // event bus telling us about those changes, reload the counts now and then
+        long refreshSeconds = plugin.getConfig().getLong("cache.counters.refresh-seconds", 60);
+        if (plugin.getDatabaseManager().getDialect() == SqlDialect.MYSQL && refreshSeconds > 0) {
+            this.counterRefreshTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin,
+                    (task) -> refreshCounters(), refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void refreshCounters() {
+        if (plugin.getEventBus() != null) {
+            return;
+        }
+        try {
+            queryExecutor.execute(counters::load);
+        } catch (RejectedExecutionException e) {
+            // Busy or shutting down, the next refresh will try again
+        }
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, queryExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Delivers the result of an async query on the player's own scheduler,
+     * so chat rendering happens on the thread that owns the player
+     * @param player The player to deliver the result to
+     * @param future The pending query result
+     * @param callback Callback run on the player's scheduler with the result
+     */
+    public <T> void deliver(Player player, CompletableFuture<T> future, Consumer<T> callback) {
+        future.whenComplete((result, error) -> player.getScheduler().run(plugin, (task) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof RejectedExecutionException) {
+                    player.sendMessage(Component.text("The report database is busy, please try again in a moment.")
+                            .color(NamedTextColor.RED));
+                } else {
+                    plugin.getLogger().severe("Report query failed: " + cause.getMessage());
+                    player.sendMessage(Component.text("An error occurred while accessing reports.")
+                            .color(NamedTextColor.RED));
+                }
+                return;
+            }
+            callback.accept(result);
+        }, null));
+    }
+
+    public CompletableFuture<List<Map<String, String>>> getFilteredReportsAsync(int page, int perPage, String statusFilter) {
+        return supplyAsync(() -> getFilteredReports(page, perPage, statusFilter));
+    }
+
+    public CompletableFuture<ReportPage> getReportPageAsync(int page, int perPage, ReportFilter filter) {
+        return supplyAsync(() -> getReportPage(page, perPage, filter));
+    }
+
+    public CompletableFuture<ReportPage> getReportPageAsync(ReportCursor cursor, int perPage, ReportFilter filter) {
+        return supplyAsync(() -> getReportPage(cursor, perPage, filter));
+    }
+
+    public CompletableFuture<List<Map<String, String>>> getReportsByPlayerAsync(String player, int limit) {
+        return supplyAsync(() -> getReportsByPlayer(player, limit));
+    }
+
+    public CompletableFuture<List<Map<String, String>>> getReportsByWorldAsync(String world, int limit) {
+        return supplyAsync(() -> getReportsByWorld(world, limit));
+    }
+
+    public CompletableFuture<Map<String, String>> getReportDetailsAsync(int reportId) {
+        return supplyAsync(() -> getReportDetails(reportId));
+    }
+
+    public CompletableFuture<List<ReportComment>> getReportCommentsAsync(int reportId) {
+        return supplyAsync(() -> getReportComments(reportId));
+    }
+
+    public CompletableFuture<Optional<Map<String, Object>>> getReportAsync(int reportId) {
+        return supplyAsync(() -> getReport(reportId));
+    }
+
+    public CompletableFuture<Boolean> updateReportStatusAsync(int reportId, ReportStatus newStatus, Player staff) {
+        return supplyAsync(() -> updateReportStatus(reportId, newStatus, staff));
+    }
+
+    public CompletableFuture<Boolean> addReportCommentAsync(int reportId, String author, String comment) {
+        return supplyAsync(() -> addReportComment(reportId, author, comment));
+    }
+
+    public CompletableFuture<Boolean> deleteReportAsync(int reportId, Player deletedBy) {
+        return supplyAsync(() -> deleteReport(reportId, deletedBy));
+    }
+
+    public ReportCache getCache() {
+        return cache;
+    }
+
+    public ReportCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Saves a new bug report on the database writer and counts it once stored
+     * @param report The report to save
+     * @return future completing with the generated report ID, or -1 if saving failed
+     */
+    public CompletableFuture<Integer> submitReport(BugReport report) {
+        long createdAt = System.currentTimeMillis();
+        return plugin.getDatabaseManager().saveBugReportAsync(report).thenApply(reportId -> {
+            if (reportId > 0) {
+                counters.recordCreated(ReportStatus.OPEN, createdAt);
+                publish(ReportEvent.created(reportId, createdAt));
+            }
+            return reportId;
+        });
+    }
+
+    /**
+     * Tells the other servers about a committed change, if the event bus is enabled
+     */
+    private void publish(ReportEvent event) {
+        ReportEventBus eventBus = plugin.getEventBus();
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+
+    /**
+     * Applies a change made on another server to this server's cache and counters
+     * and tells local staff about status changes, like a local change would
+     */
+    public void applyRemoteEvent(ReportEvent event) {
+        int reportId = event.getReportId();
+        switch (event.getType()) {
+            case CREATED -> counters.recordCreated(ReportStatus.OPEN, event.getCreatedAtMillis());
+            case STATUS_CHANGED -> {
+                cache.updateStatus(reportId, event.getStatus().name());
+                counters.recordStatusChange(event.getOldStatus(), event.getStatus());
+                notifyStaffOfStatusChange(reportId, event.getOldStatus(), event.getStatus(), event.getActor());
+            }
+            // Comment text is not sent between servers, so read the comments again when viewed
+            case COMMENT_ADDED -> cache.invalidate(reportId);
+            case DELETED -> {
+                cache.invalidate(reportId);
+                counters.recordDeleted(event.getStatus(), event.getCreatedAtMillis());
+            }
+        }
+    }
+
+    /**
+     * Stops the query pool, letting queries that are already running finish
+     */
+    public void shutdown() {
+        if (counterRefreshTask != null) {
+            counterRefreshTask.cancel();
+        }
+        queryExecutor.shutdown();
+        try {
+            if (!queryExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                queryExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            queryExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 
     public List<Map<String, String>> getReports(int page, int perPage) {
@@ -28,41 +243,53 @@ public class ReportManager {
     }
     
     public List<Map<String, String>> getFilteredReports(int page, int perPage, String statusFilter) {
+        return getReportsAtOffset((page - 1) * perPage, perPage, ReportFilter.status(statusFilter));
+    }
+
+    /**
+     * Fetches a page by number. Used for direct jumps like /managereports list 3;
+     * the returned page carries cursors so further navigation is keyset based.
+     */
+    public ReportPage getReportPage(int page, int perPage, ReportFilter filter) {
+        // Capped so the offset cannot overflow; pages that far out are simply empty
+        page = Math.max(1, Math.min(page, Integer.MAX_VALUE / perPage));
+        // One extra row tells us whether a next page exists
+        List<Map<String, String>> reports = getReportsAtOffset((page - 1) * perPage, perPage + 1, filter);
+        boolean hasNext = reports.size() > perPage;
+        if (hasNext) {
+            reports.remove(reports.size() - 1);
+        }
+        return new ReportPage(reports, page, hasNext, page > 1);
+    }
+
+    private List<Map<String, String>> getReportsAtOffset(int offset, int limit, ReportFilter filter) {
         List<Map<String, String>> reports = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT id, player_name, description, status, created_at FROM bug_reports");
+        StringBuilder sql = new StringBuilder(LIST_COLUMNS_SQL);
         
         List<String> conditions = new ArrayList<>();
-        if (statusFilter != null && !statusFilter.isEmpty()) {
-            conditions.add("status = ?");
+        if (filter != null) {
+            conditions.add(filterCondition(filter));
         }
         
         if (!conditions.isEmpty()) {
             sql.append(" WHERE ").append(String.join(" AND ", conditions));
         }
         
-        sql.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?");
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
+        try (Connection conn = plugin.getDatabaseManager().getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
             
             int paramIndex = 1;
-            if (statusFilter != null && !statusFilter.isEmpty()) {
-                stmt.setString(paramIndex++, statusFilter);
+            if (filter != null) {
+                stmt.setString(paramIndex++, filterValue(filter));
             }
             
-            stmt.setInt(paramIndex++, perPage);
-            stmt.setInt(paramIndex, (page - 1) * perPage);
+            stmt.setInt(paramIndex++, limit);
+            stmt.setInt(paramIndex, offset);
             
             ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Map<String, String> report = new HashMap<>();
-                report.put("id", rs.getString("id"));
-                report.put("player", plugin.getDatabaseManager().decrypt(rs.getString("player_name")));
-                report.put("description", plugin.getDatabaseManager().decrypt(rs.getString("description")));
-                report.put("status", rs.getString("status"));
-                report.put("created_at", rs.getString("created_at"));
-                reports.add(report);
-            }
+            reports.addAll(readListRows(rs));
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to fetch filtered reports: " + e.getMessage());
         }
@@ -70,12 +297,141 @@ public class ReportManager {
         return reports;
     }
 
+    /**
+     * Fetches the page after or before a cursor using a keyset seek on (created_at, id),
+     * so deep pages cost the same as the first one
+     * @param cursor The position to continue from, or null for the first page
+     * @param perPage Number of reports per page
+     * @param filter Optional filter, or null for all reports
+     */
+    public ReportPage getReportPage(ReportCursor cursor, int perPage, ReportFilter filter) {
+        boolean backwards = cursor != null && cursor.getDirection() == ReportCursor.Direction.PREVIOUS;
+        List<Map<String, String>> reports = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(LIST_COLUMNS_SQL);
+        
+        List<String> conditions = new ArrayList<>();
+        if (filter != null) {
+            conditions.add(filterCondition(filter));
+        }
+        if (cursor != null) {
+            conditions.add(backwards
+                    ? "(created_at > ? OR (created_at = ? AND id > ?))"
+                    : "(created_at < ? OR (created_at = ? AND id < ?))");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(backwards
+                ? " ORDER BY created_at ASC, id ASC LIMIT ?"
+                : " ORDER BY created_at DESC, id DESC LIMIT ?");
+        
+        try (Connection conn = plugin.getDatabaseManager().getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int paramIndex = 1;
+            if (filter != null) {
+                stmt.setString(paramIndex++, filterValue(filter));
+            }
+            if (cursor != null) {
+                stmt.setString(paramIndex++, cursor.getCreatedAt());
+                stmt.setString(paramIndex++, cursor.getCreatedAt());
+                stmt.setInt(paramIndex++, cursor.getId());
+            }
+            // One extra row tells us whether there is another page in this direction
+            stmt.setInt(paramIndex, perPage + 1);
+            
+            ResultSet rs = stmt.executeQuery();
+            reports.addAll(readListRows(rs));
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to fetch report page: " + e.getMessage());
+        }
+        
+        boolean more = reports.size() > perPage;
+        if (more) {
+            reports.remove(reports.size() - 1);
+        }
+        
+        if (backwards) {
+            Collections.reverse(reports);
+            // Walking back off the start means this is the first page again
+            int page = more ? Math.max(1, cursor.getPage()) : 1;
+            return new ReportPage(reports, page, true, more);
+        }
+        int page = cursor == null ? 1 : cursor.getPage();
+        return new ReportPage(reports, page, more, cursor != null);
+    }
+
+    private String filterCondition(ReportFilter filter) {
+        return switch (filter.getType()) {
+            case STATUS -> "status = ?";
+            case PLAYER -> isUuid(filter.getValue()) ? "player_uuid_bidx = ?" : "player_name_bidx = ?";
+            case WORLD -> "world_bidx = ?";
+        };
+    }
+
+    private String filterValue(ReportFilter filter) {
+        // Encrypted columns are matched on their blind index, an index seek instead of a decrypt-scan
+        return switch (filter.getType()) {
+            case STATUS -> filter.getValue();
+            case PLAYER, WORLD -> plugin.getDatabaseManager().blindIndex(filter.getValue());
+        };
+    }
+
+    private boolean isUuid(String value) {
+        try {
+            java.util.UUID.fromString(value);
+            return value.length() == 36;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Fetches the most recent reports submitted by a player
+     * @param player Player name or UUID
+     * @param limit Maximum number of reports
+     */
+    public List<Map<String, String>> getReportsByPlayer(String player, int limit) {
+        return getReportPage((ReportCursor) null, limit, new ReportFilter(ReportFilter.Type.PLAYER, player)).getReports();
+    }
+
+    /**
+     * Fetches the most recent reports submitted in a world
+     * @param world World name
+     * @param limit Maximum number of reports
+     */
+    public List<Map<String, String>> getReportsByWorld(String world, int limit) {
+        return getReportPage((ReportCursor) null, limit, new ReportFilter(ReportFilter.Type.WORLD, world)).getReports();
+    }
+
+    private List<Map<String, String>> readListRows(ResultSet rs) throws SQLException {
+        List<Map<String, String>> reports = new ArrayList<>();
+        List<String> encrypted = new ArrayList<>();
+        while (rs.next()) {
+            Map<String, String> report = new HashMap<>();
+            report.put("id", rs.getString("id"));
+            report.put("status", rs.getString("status"));
+            report.put("created_at", rs.getString("created_at"));
+            encrypted.add(rs.getString("player_name"));
+            encrypted.add(rs.getString("description"));
+            reports.add(report);
+        }
+        
+        // Decrypt the whole page at once rather than field by field
+        String[] decrypted = plugin.getDatabaseManager().decryptAll(encrypted.toArray(new String[0]));
+        for (int i = 0; i < reports.size(); i++) {
+            reports.get(i).put("player", decrypted[i * 2]);
+            reports.get(i).put("description", decrypted[i * 2 + 1]);
+        }
+        return reports;
+    }
+
     public boolean updateReportStatus(int reportId, ReportStatus newStatus, Player staff) {
         // First get the current status
         String getCurrentStatusSql = "SELECT status FROM bug_reports WHERE id = ?";
         ReportStatus oldStatus = null;
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
+        try (Connection conn = plugin.getDatabaseManager().getReadConnection();
              PreparedStatement getStmt = conn.prepareStatement(getCurrentStatusSql)) {
             
             getStmt.setInt(1, reportId);
@@ -90,21 +446,37 @@ public class ReportManager {
             return false;
         }
         
-        // Update the status
-        String updateSql = "UPDATE bug_reports SET status = ?, handler = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        // Update the status, only if nobody changed it since we read it so the counters stay exact
+        String updateSql = "UPDATE bug_reports SET status = ?, handler = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND status = ?";
+        WebhookOutbox outbox = plugin.getDatabaseManager().getOutbox();
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(updateSql)) {
-            
-            stmt.setString(1, newStatus.name());
-            stmt.setString(2, staff.getName());
-            stmt.setInt(3, reportId);
-            
-            int updated = stmt.executeUpdate();
-            if (updated > 0) {
-                notifyStaffOfStatusChange(reportId, oldStatus, newStatus, staff);
-                return true;
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+                stmt.setString(1, newStatus.name());
+                stmt.setString(2, staff.getName());
+                stmt.setInt(3, reportId);
+                stmt.setString(4, oldStatus.name());
+                
+                if (stmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                outbox.append(conn, WebhookEvent.statusChanged(reportId, oldStatus, newStatus, staff.getName()));
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
+            
+            outbox.signal();
+            cache.updateStatus(reportId, newStatus.name());
+            counters.recordStatusChange(oldStatus, newStatus);
+            publish(ReportEvent.statusChanged(reportId, oldStatus, newStatus, staff.getName()));
+            notifyStaffOfStatusChange(reportId, oldStatus, newStatus, staff.getName());
+            return true;
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to update report status: " + e.getMessage());
         }
@@ -112,33 +484,35 @@ public class ReportManager {
         return false;
     }
 
-    private void notifyStaffOfStatusChange(int reportId, ReportStatus oldStatus, ReportStatus newStatus, Player updatedBy) {
+    private void notifyStaffOfStatusChange(int reportId, ReportStatus oldStatus, ReportStatus newStatus, String updatedBy) {
         String message = String.format("§6Report #%d status updated from %s to %s by %s", 
-            reportId, oldStatus.getDisplay(), newStatus.getDisplay(), updatedBy.getName());
+            reportId, oldStatus.getDisplay(), newStatus.getDisplay(), updatedBy);
         
-        // Notify online staff
-        plugin.getServer().getOnlinePlayers().forEach(player -> {
-            if (player.hasPermission("msnreports.manage")) {
-                player.sendMessage(Component.text(message));
-            }
-        });
-        
-        // Send Discord notification
-        try {
-            App app = (App) plugin;
-            DiscordWebhookSender webhookSender = app.getWebhookSender();
-            if (webhookSender != null) {
-                webhookSender.sendStatusUpdate(reportId, oldStatus, newStatus, updatedBy.getName());
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to send Discord status update: " + e.getMessage());
-        }
+        // Called from query and event threads; Folia only allows touching a player on
+        // the thread that owns it, so list players globally and message each on its own
+        plugin.getServer().getGlobalRegionScheduler().execute(plugin, () ->
+            plugin.getServer().getOnlinePlayers().forEach(player -> player.getScheduler().run(plugin, (task) -> {
+                if (player.hasPermission("msnreports.manage")) {
+                    player.sendMessage(Component.text(message));
+                }
+            }, null)));
     }
 
     public Map<String, String> getReportDetails(int reportId) {
+        Map<String, String> cached = cache.getDetails(reportId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadStamp = cache.beginLoad();
+        Map<String, String> details = loadReportDetails(reportId);
+        cache.putDetails(reportId, details, loadStamp);
+        return details;
+    }
+
+    private Map<String, String> loadReportDetails(int reportId) {
         String sql = "SELECT * FROM bug_reports WHERE id = ?";
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
+        try (Connection conn = plugin.getDatabaseManager().getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, reportId);
@@ -166,84 +540,91 @@ public class ReportManager {
     }
 
     public boolean addReportComment(int reportId, String author, String comment) {
-        String sql = "SELECT comments FROM bug_reports WHERE id = ?";
-        String updateSql = "UPDATE bug_reports SET comments = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        // Each comment is its own row, so concurrent comments never overwrite each other
+        // and adding one costs a single encryption regardless of the report's history.
+        // Selecting from bug_reports makes the insert a no-op when the report does not exist.
+        String insertSql = "INSERT INTO report_comments (report_id, author, content, comment_type, created_at) " +
+                "SELECT id, ?, ?, ?, ? FROM bug_reports WHERE id = ?";
+        String touchSql = "UPDATE bug_reports SET updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        ReportComment newComment = new ReportComment(author, comment, ReportComment.CommentType.STAFF_NOTE);
+        WebhookOutbox outbox = plugin.getDatabaseManager().getOutbox();
         
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-            // Get existing comments
-            String existingComments = "";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, reportId);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    String encrypted = rs.getString("comments");
-                    if (encrypted != null && !encrypted.isEmpty()) {
-                        existingComments = plugin.getDatabaseManager().decrypt(encrypted);
-                    }
-                } else {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement touchStmt = conn.prepareStatement(touchSql)) {
+                insertStmt.setString(1, plugin.getDatabaseManager().encrypt(newComment.getAuthor()));
+                insertStmt.setString(2, plugin.getDatabaseManager().encrypt(newComment.getContent()));
+                insertStmt.setString(3, newComment.getType().name());
+                plugin.getDatabaseManager().getDialect().bindTimestamp(insertStmt, 4, newComment.getInstant());
+                insertStmt.setInt(5, reportId);
+                if (insertStmt.executeUpdate() == 0) {
+                    conn.rollback();
                     return false; // Report not found
                 }
-            }
-            
-            // Create new comment entry
-            String timestamp = java.time.LocalDateTime.now().format(
-                java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String newComment = String.format("[%s] 📝 %s: %s", timestamp, author, comment);
-            
-            // Append to existing comments
-            String updatedComments = existingComments.isEmpty() ? 
-                newComment : existingComments + "\n" + newComment;
-            
-            // Update the database
-            try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                updateStmt.setString(1, plugin.getDatabaseManager().encrypt(updatedComments));
-                updateStmt.setInt(2, reportId);
-                boolean success = updateStmt.executeUpdate() > 0;
-                
-                if (success) {
-                    // Send Discord notification for comment
-                    try {
-                        App app = (App) plugin;
-                        DiscordWebhookSender webhookSender = app.getWebhookSender();
-                        if (webhookSender != null) {
-                            webhookSender.sendCommentNotification(reportId, author, comment);
-                        }
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Failed to send Discord comment notification: " + e.getMessage());
+                long commentId;
+                try (ResultSet keys = insertStmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("No generated key returned for comment");
                     }
+                    commentId = keys.getLong(1);
                 }
                 
-                return success;
+                touchStmt.setInt(1, reportId);
+                touchStmt.executeUpdate();
+                outbox.append(conn, WebhookEvent.commentAdded(reportId, commentId, author, comment));
+                conn.commit();
+                cache.addComment(reportId, newComment);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to add comment: " + e.getMessage());
+            return false;
         }
         
-        return false;
+        outbox.signal();
+        publish(ReportEvent.commentAdded(reportId, author));
+        return true;
+    }
+
+    public List<ReportComment> getReportComments(int reportId) {
+        List<ReportComment> cached = cache.getComments(reportId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadStamp = cache.beginLoad();
+        List<ReportComment> comments = loadReportComments(reportId);
+        cache.putComments(reportId, comments, loadStamp);
+        return comments;
     }
 
-    public List<String> getReportComments(int reportId) {
-        List<String> comments = new ArrayList<>();
-        String sql = "SELECT comments FROM bug_reports WHERE id = ?";
+    private List<ReportComment> loadReportComments(int reportId) {
+        List<ReportComment> comments = new ArrayList<>();
+        String sql = "SELECT author, content, comment_type, created_at FROM report_comments " +
+                "WHERE report_id = ? ORDER BY id";
         
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
+        try (Connection conn = plugin.getDatabaseManager().getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, reportId);
             ResultSet rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                String encrypted = rs.getString("comments");
-                if (encrypted != null && !encrypted.isEmpty()) {
-                    String decrypted = plugin.getDatabaseManager().decrypt(encrypted);
-                    String[] commentLines = decrypted.split("\n");
-                    for (String line : commentLines) {
-                        if (!line.trim().isEmpty()) {
-                            comments.add(line);
-                        }
-                    }
-                }
+            List<String> encrypted = new ArrayList<>();
+            List<String[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                encrypted.add(rs.getString("author"));
+                encrypted.add(rs.getString("content"));
+                rows.add(new String[] {rs.getString("comment_type"), rs.getString("created_at")});
+            }
+            
+            String[] decrypted = plugin.getDatabaseManager().decryptAll(encrypted.toArray(new String[0]));
+            for (int i = 0; i < rows.size(); i++) {
+                comments.add(new ReportComment(decrypted[i * 2], decrypted[i * 2 + 1],
+                        ReportComment.CommentType.fromString(rows.get(i)[0]), rows.get(i)[1]));
             }
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to fetch comments: " + e.getMessage());
@@ -254,7 +635,7 @@ public class ReportManager {
     
     public java.util.Optional<Map<String, Object>> getReport(int reportId) {
         String sql = "SELECT * FROM bug_reports WHERE id = ?";
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
+        try (Connection conn = plugin.getDatabaseManager().getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, reportId);
@@ -289,7 +670,11 @@ public class ReportManager {
         return java.util.Optional.empty();
     }
     
-    public boolean deleteReport(int reportId) {
+    public boolean deleteReport(int reportId, Player deletedBy) {
+        String selectSql = "SELECT status, " + plugin.getDatabaseManager().getDialect().epochSeconds("created_at") +
+                ", player_name, description FROM bug_reports WHERE id = ?";
+        WebhookOutbox outbox = plugin.getDatabaseManager().getOutbox();
+        String deleteCommentsSql = "DELETE FROM report_comments WHERE report_id = ?";
         String deleteReportSql = "DELETE FROM bug_reports WHERE id = ?";
         
         try (Connection conn = plugin.getDatabaseManager().getConnection()) {
@@ -297,13 +682,41 @@ public class ReportManager {
             conn.setAutoCommit(false);
             
             try {
-                // Delete the report (comments are stored in the same table, so they'll be deleted automatically)
+                // Remember what the counters need to forget about this report
+                ReportStatus status;
+                long createdAtMillis;
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    stmt.setInt(1, reportId);
+                    ResultSet rs = stmt.executeQuery();
+                    if (!rs.next()) {
+                        conn.rollback();
+                        plugin.getLogger().warning("No report found with ID #" + reportId);
+                        return false;
+                    }
+                    status = ReportStatus.fromString(rs.getString(1));
+                    createdAtMillis = rs.getLong(2) * 1000L;
+                    // The deletion notice is the last trace of the report, so capture what it shows now
+                    String[] decrypted = plugin.getDatabaseManager().decryptAll(new String[] {rs.getString(3), rs.getString(4)});
+                    outbox.append(conn, WebhookEvent.reportDeleted(reportId, decrypted[0], decrypted[1],
+                            deletedBy.getName(), deletedBy.getUniqueId().toString()));
+                }
+                
+                // Delete the comments first so a failed report delete rolls both back
+                try (PreparedStatement stmt = conn.prepareStatement(deleteCommentsSql)) {
+                    stmt.setInt(1, reportId);
+                    stmt.executeUpdate();
+                }
+                
                 try (PreparedStatement stmt = conn.prepareStatement(deleteReportSql)) {
                     stmt.setInt(1, reportId);
                     int rowsAffected = stmt.executeUpdate();
                     
                     if (rowsAffected > 0) {
                         conn.commit();
+                        outbox.signal();
+                        cache.invalidate(reportId);
+                        counters.recordDeleted(status, createdAtMillis);
+                        publish(ReportEvent.deleted(reportId, status, createdAtMillis, deletedBy.getName()));
                         plugin.getLogger().info("Successfully deleted report #" + reportId + " and its comments");
                         return true;
                     } else {
@@ -1,9 +1,14 @@
 package dev.msntech.msnreports.models;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 public class ReportComment {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final String author;
     private final String content;
     private final String timestamp;
@@ -30,13 +35,37 @@ public class ReportComment {
         public String getEmoji() {
             return emoji;
         }
+
+        public static CommentType fromEmoji(String emoji) {
+            for (CommentType type : values()) {
+                if (type.emoji.equals(emoji)) {
+                    return type;
+                }
+            }
+            return STAFF_NOTE;
+        }
+
+        public static CommentType fromString(String name) {
+            try {
+                return valueOf(name.toUpperCase());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                return STAFF_NOTE;
+            }
+        }
     }
 
     public ReportComment(String author, String content, CommentType type) {
         this.author = author;
         this.content = content;
         this.type = type;
-        this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        this.timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+    }
+
+    public ReportComment(String author, String content, CommentType type, String timestamp) {
+        this.author = author;
+        this.content = content;
+        this.type = type;
+        this.timestamp = timestamp;
     }
 
     // Getters
@@ -56,6 +85,21 @@ public class ReportComment {
         return type;
     }
 
+    /**
+     * Reads the timestamp in the server's time zone, which is the one it was written in
+     * @return The moment the comment was made, or null if the timestamp is missing or malformed
+     */
+    public Instant getInstant() {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT).atZone(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     public String getFormattedComment() {
         return String.format("[%s] %s %s: %s", 
             timestamp, 
@@ -0,0 +1,85 @@
+package dev.msntech.msnreports.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the report list, ordered by (created_at, id) descending.
+ * Encoded into the clickable navigation buttons of /managereports list.
+ */
+public class ReportCursor {
+    public enum Direction {
+        NEXT('n'),
+        PREVIOUS('p');
+
+        private final char prefix;
+
+        Direction(char prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private final Direction direction;
+    private final int page;
+    private final String createdAt;
+    private final int id;
+
+    public ReportCursor(Direction direction, int page, String createdAt, int id) {
+        this.direction = direction;
+        this.page = page;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = page + "|" + id + "|" + createdAt;
+        return direction.prefix + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token produced by {@link #encode()}
+     * @param token The token to decode
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ReportCursor decode(String token) {
+        if (token == null || token.length() < 2) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        Direction direction;
+        switch (token.charAt(0)) {
+            case 'n' -> direction = Direction.NEXT;
+            case 'p' -> direction = Direction.PREVIOUS;
+            default -> throw new IllegalArgumentException("Invalid page cursor");
+        }
+
+        String[] parts = new String(Base64.getUrlDecoder().decode(token.substring(1)), StandardCharsets.UTF_8)
+                .split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        try {
+            return new ReportCursor(direction, Integer.parseInt(parts[0]), parts[2], Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+}
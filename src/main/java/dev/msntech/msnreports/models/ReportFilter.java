@@ -0,0 +1,69 @@
+package dev.msntech.msnreports.models;
+
+/**
+ * A single equality filter for the report list. Player and world filters
+ * are matched through blind indexes because those columns are encrypted.
+ */
+public class ReportFilter {
+    public enum Type {
+        STATUS("status", "Status"),
+        PLAYER("player", "Player"),
+        WORLD("world", "World");
+
+        private final String name;
+        private final String display;
+
+        Type(String name, String display) {
+            this.name = name;
+            this.display = display;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDisplay() {
+            return display;
+        }
+
+        public static Type fromName(String name) {
+            for (Type type : values()) {
+                if (type.name.equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Type type;
+    private final String value;
+
+    public ReportFilter(Type type, String value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    public static ReportFilter status(String status) {
+        return status == null || status.isEmpty() ? null : new ReportFilter(Type.STATUS, status);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getLabel() {
+        return type.getDisplay() + ": " + value;
+    }
+
+    /**
+     * @return the /managereports command that lists reports matching this filter
+     */
+    public String getCommand() {
+        return "/mr filter " + type.getName() + " " + value;
+    }
+}
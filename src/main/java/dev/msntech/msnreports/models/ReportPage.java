@@ -0,0 +1,58 @@
+package dev.msntech.msnreports.models;
+
+import java.util.List;
+import java.util.Map;
+
+public class ReportPage {
+    private final List<Map<String, String>> reports;
+    private final int page;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+
+    public ReportPage(List<Map<String, String>> reports, int page, boolean hasNext, boolean hasPrevious) {
+        this.reports = reports;
+        this.page = page;
+        this.hasNext = hasNext && !reports.isEmpty();
+        this.hasPrevious = hasPrevious && !reports.isEmpty();
+    }
+
+    public List<Map<String, String>> getReports() {
+        return reports;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    /**
+     * @return cursor positioned after the last report on this page, or null if there is no next page
+     */
+    public ReportCursor getNextCursor() {
+        if (!hasNext) {
+            return null;
+        }
+        Map<String, String> last = reports.get(reports.size() - 1);
+        return new ReportCursor(ReportCursor.Direction.NEXT, page + 1,
+                last.get("created_at"), Integer.parseInt(last.get("id")));
+    }
+
+    /**
+     * @return cursor positioned before the first report on this page, or null if this is the first page
+     */
+    public ReportCursor getPreviousCursor() {
+        if (!hasPrevious) {
+            return null;
+        }
+        Map<String, String> first = reports.get(0);
+        return new ReportCursor(ReportCursor.Direction.PREVIOUS, page - 1,
+                first.get("created_at"), Integer.parseInt(first.get("id")));
+    }
+}
@@ -1,27 +1,76 @@
 package dev.msntech.msnreports.utils;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import javax.crypto.spec.IvParameterSpec;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
 
+/**
+ * Encrypts stored report fields. New values use AES-GCM in a versioned format,
+ * "v2:" followed by Base64 of [version byte | 12-byte nonce | ciphertext + tag].
+ * Values without the prefix are legacy AES-CBC ([16-byte IV | ciphertext]) and
+ * are still decrypted transparently.
+ */
 public class EncryptionUtil {
-    private final SecretKey key;
+    private final SecretKey legacyKey;
+    private final SecretKey gcmKey;
+    private final SecretKey blindIndexKey;
     private final SecureRandom secureRandom;
-    private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
+    private static final String LEGACY_ALGORITHM = "AES/CBC/PKCS5Padding";
+    private static final String GCM_ALGORITHM = "AES/GCM/NoPadding";
     private static final String KEY_ALGORITHM = "AES";
-    private static final int IV_LENGTH = 16; // AES block size
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] GCM_KEY_CONTEXT = "msnreports-aes-gcm-v2".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BLIND_INDEX_CONTEXT = "msnreports-blind-index-v1".getBytes(StandardCharsets.UTF_8);
+    private static final int IV_LENGTH = 16; // AES block size, legacy CBC format
+    private static final String FORMAT_PREFIX = "v2:";
+    private static final byte FORMAT_VERSION = 0x02;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int HEADER_LENGTH = 1 + NONCE_LENGTH;
+    
+    // Cipher and Mac lookups go through the provider registry and dominate the cost of
+    // short values, so each thread keeps its own instances. They are not thread-safe,
+    // but re-initialising them with a fresh key and IV per call is.
+    private static final ThreadLocal<Cipher> LEGACY_CIPHER = ThreadLocal.withInitial(() -> newInstance(LEGACY_ALGORITHM, Cipher::getInstance));
+    private static final ThreadLocal<Cipher> GCM_CIPHER = ThreadLocal.withInitial(() -> newInstance(GCM_ALGORITHM, Cipher::getInstance));
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> newInstance(HMAC_ALGORITHM, Mac::getInstance));
+    
+    @FunctionalInterface
+    private interface Factory<T> {
+        T create(String algorithm) throws Exception;
+    }
+    
+    private static <T> T newInstance(String algorithm, Factory<T> factory) {
+        try {
+            return factory.create(algorithm);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unsupported algorithm: " + algorithm, e);
+        }
+    }
     
     public EncryptionUtil(String password) {
         try {
             // Create a secure key from the password
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            this.key = new SecretKeySpec(hash, KEY_ALGORITHM);
+            this.legacyKey = new SecretKeySpec(hash, KEY_ALGORITHM);
+            
+            // Derive separate keys per purpose so no key is used by two algorithms
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(hash, HMAC_ALGORITHM));
+            this.gcmKey = new SecretKeySpec(mac.doFinal(GCM_KEY_CONTEXT), KEY_ALGORITHM);
+            this.blindIndexKey = new SecretKeySpec(mac.doFinal(BLIND_INDEX_CONTEXT), HMAC_ALGORITHM);
+            
             this.secureRandom = new SecureRandom();
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize encryption", e);
@@ -30,21 +79,24 @@ public class EncryptionUtil {
     
     public String encrypt(String data) {
         try {
-            // Generate random IV
-            byte[] iv = new byte[IV_LENGTH];
-            secureRandom.nextBytes(iv);
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
+            byte[] plainBytes = data.getBytes(StandardCharsets.UTF_8);
+            byte[] nonce = new byte[NONCE_LENGTH];
+            secureRandom.nextBytes(nonce);
+            
+            Cipher cipher = GCM_CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, gcmKey, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
             
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, key, ivSpec);
-            byte[] encryptedBytes = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            // Header is version byte followed by the nonce, written straight into the output buffer
+            byte[] combined = new byte[HEADER_LENGTH + cipher.getOutputSize(plainBytes.length)];
+            combined[0] = FORMAT_VERSION;
+            System.arraycopy(nonce, 0, combined, 1, NONCE_LENGTH);
             
-            // Combine IV and encrypted data
-            byte[] combined = new byte[IV_LENGTH + encryptedBytes.length];
-            System.arraycopy(iv, 0, combined, 0, IV_LENGTH);
-            System.arraycopy(encryptedBytes, 0, combined, IV_LENGTH, encryptedBytes.length);
+            // Authenticate the version byte so it cannot be swapped
+            cipher.updateAAD(combined, 0, 1);
+            int length = HEADER_LENGTH + cipher.doFinal(plainBytes, 0, plainBytes.length, combined, HEADER_LENGTH);
             
-            return Base64.getEncoder().encodeToString(combined);
+            return FORMAT_PREFIX + Base64.getEncoder().encodeToString(
+                    length == combined.length ? combined : Arrays.copyOf(combined, length));
         } catch (Exception e) {
             throw new RuntimeException("Encryption failed", e);
         }
@@ -52,22 +104,112 @@ public class EncryptionUtil {
     
     public String decrypt(String encryptedData) {
         try {
-            byte[] combined = Base64.getDecoder().decode(encryptedData);
+            boolean current = isCurrentFormat(encryptedData);
+            byte[] combined = Base64.getDecoder().decode(current
+                    ? encryptedData.substring(FORMAT_PREFIX.length())
+                    : encryptedData);
             
-            // Extract IV and encrypted data
-            byte[] iv = new byte[IV_LENGTH];
-            byte[] encryptedBytes = new byte[combined.length - IV_LENGTH];
-            System.arraycopy(combined, 0, iv, 0, IV_LENGTH);
-            System.arraycopy(combined, IV_LENGTH, encryptedBytes, 0, encryptedBytes.length);
-            
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, key, ivSpec);
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
+            int offset = current ? HEADER_LENGTH : IV_LENGTH;
+            Cipher cipher = initDecrypt(combined, combined.length, current);
+            byte[] decryptedBytes = cipher.doFinal(combined, offset, combined.length - offset);
             
             return new String(decryptedBytes, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("Decryption failed", e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Decrypts a range of values with one cipher per format and reused decode and
+     * output buffers, instead of the per-value setup of {@link #decrypt(String)}.
+     * @param values Encrypted values, null entries are allowed
+     * @param results Receives the plaintexts at the same positions; null where the
+     *                input was null or could not be decrypted
+     * @param from First index to decrypt, inclusive
+     * @param to Last index to decrypt, exclusive
+     * @return Number of values that failed to decrypt
+     */
+    public int decryptAll(String[] values, String[] results, int from, int to) {
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] combined = new byte[256];
+        byte[] plain = new byte[256];
+        int failures = 0;
+        
+        for (int i = from; i < to; i++) {
+            String value = values[i];
+            results[i] = null;
+            if (value == null) {
+                continue;
+            }
+            try {
+                boolean current = isCurrentFormat(value);
+                byte[] encoded = (current ? value.substring(FORMAT_PREFIX.length()) : value)
+                        .getBytes(StandardCharsets.ISO_8859_1);
+                // Decoded size is at most 3/4 of the encoded size
+                if (combined.length < encoded.length) {
+                    combined = new byte[encoded.length];
+                }
+                int length = decoder.decode(encoded, combined);
+                
+                int offset = current ? HEADER_LENGTH : IV_LENGTH;
+                Cipher cipher = initDecrypt(combined, length, current);
+                int needed = cipher.getOutputSize(length - offset);
+                if (plain.length < needed) {
+                    plain = new byte[needed];
+                }
+                int plainLength = cipher.doFinal(combined, offset, length - offset, plain, 0);
+                results[i] = new String(plain, 0, plainLength, StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+    
+    private Cipher initDecrypt(byte[] combined, int length, boolean current) throws Exception {
+        if (!current) {
+            // IV and encrypted data are read in place from the decoded buffer
+            Cipher cipher = LEGACY_CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, legacyKey, new IvParameterSpec(combined, 0, IV_LENGTH));
+            return cipher;
+        }
+        
+        if (length < HEADER_LENGTH || combined[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported ciphertext version");
+        }
+        Cipher cipher = GCM_CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, gcmKey, new GCMParameterSpec(TAG_LENGTH_BITS, combined, 1, NONCE_LENGTH));
+        // Fails with AEADBadTagException on doFinal if the value was tampered with
+        cipher.updateAAD(combined, 0, 1);
+        return cipher;
+    }
+    
+    /**
+     * @param encryptedData A stored encrypted value
+     * @return true if the value already uses the current AES-GCM format
+     */
+    public boolean isCurrentFormat(String encryptedData) {
+        return encryptedData != null && encryptedData.startsWith(FORMAT_PREFIX);
+    }
+    
+    /**
+     * Computes a deterministic keyed hash of a value so encrypted columns can be
+     * looked up by equality without decrypting them. Values are trimmed and
+     * lower-cased first, so lookups are case-insensitive.
+     * @param value The plaintext value
+     * @return Hex-encoded HMAC-SHA256, or null if value is null
+     */
+    public String blindIndex(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            Mac mac = MAC.get();
+            mac.init(blindIndexKey);
+            byte[] digest = mac.doFinal(value.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new RuntimeException("Blind index computation failed", e);
+        }
+    }
+}
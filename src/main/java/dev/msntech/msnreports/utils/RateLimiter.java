@@ -1,155 +1,420 @@
 package dev.msntech.msnreports.utils;
 
-import org.bukkit.entity.Player;
+import org.bukkit.configuration.file.FileConfiguration;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
 
+/**
+ * Per-player token buckets for rate limited actions, configured under rate-limits in config.yml.
+ * Each bucket holds up to capacity tokens and regains one every refill interval.
+ *
+ * Buckets are stored as a single "theoretical arrival time" (GCRA), keyed by the two
+ * halves of the player's UUID in primitive open-addressing tables, so checks allocate
+ * nothing. A bucket that has refilled completely is equivalent to having no entry, so
+ * such entries are reused or dropped when the table is next touched instead of being
+ * swept on a timer. Tables are split into segments with their own lock; a fully
+ * lock-free table would need to swap a two-long key atomically, which Java cannot do.
+ *
+ * With a shared store attached (rate-limits.backend: database), the local buckets act
+ * as a near cache: checks stay local, every recorded action is also written to the
+ * store, and a player's buckets are loaded from it when they join a server.
+ */
 public class RateLimiter {
-    
-    // Rate limits (in milliseconds)
-    public static final long BUG_REPORT_COOLDOWN = TimeUnit.MINUTES.toMillis(2); // 2 minutes between reports
-    public static final long DISCORD_WEBHOOK_COOLDOWN = TimeUnit.SECONDS.toMillis(5); // 5 seconds between webhook calls
-    public static final long COMMENT_COOLDOWN = TimeUnit.SECONDS.toMillis(30); // 30 seconds between comments
-    
-    // Storage for last action times
-    private static final ConcurrentHashMap<String, Long> bugReportCooldowns = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, Long> commentCooldowns = new ConcurrentHashMap<>();
-    private static volatile long lastDiscordWebhookTime = 0;
-    
+    public enum Action {
+        BUG_REPORT(1, "bug-report", 1, 120),
+        COMMENT(2, "comment", 1, 30);
+
+        private final int code;
+        private final String configKey;
+        private final int defaultCapacity;
+        private final long defaultRefillSeconds;
+
+        Action(int code, String configKey, int defaultCapacity, long defaultRefillSeconds) {
+            this.code = code;
+            this.configKey = configKey;
+            this.defaultCapacity = defaultCapacity;
+            this.defaultRefillSeconds = defaultRefillSeconds;
+        }
+
+        /**
+         * @return Stable identifier used by the shared store, never reuse or renumber
+         */
+        public int getCode() {
+            return code;
+        }
+
+        public static Action fromCode(int code) {
+            for (Action action : values()) {
+                if (action.code == code) {
+                    return action;
+                }
+            }
+            return null;
+        }
+    }
+
     /**
-     * Checks if a player can submit a bug report
-     * @param player The player to check
-     * @return true if allowed, false if still on cooldown
+     * Cooldown state shared between servers. Operations for one player must reach the
+     * store in the order they were requested.
      */
-    public static boolean canSubmitBugReport(Player player) {
-        String playerId = player.getUniqueId().toString();
-        long currentTime = System.currentTimeMillis();
-        
-        Long lastTime = bugReportCooldowns.get(playerId);
-        if (lastTime == null) {
-            return true;
-        }
-        
-        return (currentTime - lastTime) >= BUG_REPORT_COOLDOWN;
-    }
-    
+    public interface SharedStore {
+        /**
+         * Adds one use to the stored bucket, off the calling thread
+         * @param refillMillis Time one token takes to come back
+         * @param onStored Receives the stored time at which the bucket is full again
+         */
+        void record(Action action, UUID playerId, long refillMillis, LongConsumer onStored);
+
+        /**
+         * Gives back one use recorded earlier, off the calling thread
+         */
+        void refund(Action action, UUID playerId, long refillMillis);
+
+        /**
+         * Loads the player's stored buckets, off the calling thread
+         * @param onLoaded Receives each action with the time at which its bucket is full again
+         */
+        void load(UUID playerId, BiConsumer<Action, Long> onLoaded);
+    }
+
+    private static final int SEGMENTS = 16;
+    private static final int INITIAL_SEGMENT_SIZE = 16;
+    // Returned by consume when the action is not allowed
+    private static final long DENIED = Long.MIN_VALUE;
+
+    private final Map<Action, Buckets> buckets = new EnumMap<>(Action.class);
+    private volatile SharedStore sharedStore;
+
+    public RateLimiter(FileConfiguration config) {
+        for (Action action : Action.values()) {
+            buckets.put(action, new Buckets());
+        }
+        configure(config);
+    }
+
     /**
-     * Records that a player has submitted a bug report
-     * @param player The player who submitted the report
+     * Applies bucket sizes from the config; existing player state is kept
      */
-    public static void recordBugReport(Player player) {
-        String playerId = player.getUniqueId().toString();
-        bugReportCooldowns.put(playerId, System.currentTimeMillis());
+    public void configure(FileConfiguration config) {
+        for (Action action : Action.values()) {
+            String path = "rate-limits." + action.configKey;
+            int capacity = Math.max(1, config.getInt(path + ".capacity", action.defaultCapacity));
+            long refillSeconds = Math.max(0, config.getLong(path + ".refill-seconds", action.defaultRefillSeconds));
+            buckets.get(action).configure(capacity, TimeUnit.SECONDS.toNanos(refillSeconds));
+        }
     }
-    
+
     /**
-     * Gets the remaining cooldown time for bug reports
-     * @param player The player to check
-     * @return remaining time in seconds, 0 if no cooldown
+     * Shares cooldowns with other servers through the given store, or stops sharing when null
      */
-    public static long getBugReportCooldownRemaining(Player player) {
-        String playerId = player.getUniqueId().toString();
-        long currentTime = System.currentTimeMillis();
-        
-        Long lastTime = bugReportCooldowns.get(playerId);
-        if (lastTime == null) {
-            return 0;
-        }
-        
-        long elapsed = currentTime - lastTime;
-        long remaining = BUG_REPORT_COOLDOWN - elapsed;
-        
-        return remaining > 0 ? TimeUnit.MILLISECONDS.toSeconds(remaining) : 0;
-    }
-    
+    public void setSharedStore(SharedStore sharedStore) {
+        this.sharedStore = sharedStore;
+    }
+
     /**
-     * Checks if a player can add a comment
-     * @param player The player to check
-     * @return true if allowed, false if still on cooldown
+     * Loads the player's cooldowns from the shared store, so a player who just came
+     * from another server keeps the cooldowns they had there
      */
-    public static boolean canAddComment(Player player) {
-        String playerId = player.getUniqueId().toString();
-        long currentTime = System.currentTimeMillis();
-        
-        Long lastTime = commentCooldowns.get(playerId);
-        if (lastTime == null) {
-            return true;
-        }
-        
-        return (currentTime - lastTime) >= COMMENT_COOLDOWN;
-    }
-    
+    public void prefetch(UUID playerId) {
+        SharedStore store = sharedStore;
+        if (store != null) {
+            store.load(playerId, (action, fullAtMillis) -> merge(action, playerId, fullAtMillis));
+        }
+    }
+
     /**
-     * Records that a player has added a comment
-     * @param player The player who added the comment
+     * Checks whether the player has a token left, without using it
      */
-    public static void recordComment(Player player) {
-        String playerId = player.getUniqueId().toString();
-        commentCooldowns.put(playerId, System.currentTimeMillis());
+    public boolean canPerform(Action action, UUID playerId) {
+        return getRemainingNanos(action, playerId) == 0;
     }
-    
+
     /**
-     * Gets the remaining cooldown time for comments
-     * @param player The player to check
-     * @return remaining time in seconds, 0 if no cooldown
+     * Uses one token, even if none is left
      */
-    public static long getCommentCooldownRemaining(Player player) {
-        String playerId = player.getUniqueId().toString();
-        long currentTime = System.currentTimeMillis();
-        
-        Long lastTime = commentCooldowns.get(playerId);
-        if (lastTime == null) {
-            return 0;
-        }
-        
-        long elapsed = currentTime - lastTime;
-        long remaining = COMMENT_COOLDOWN - elapsed;
-        
-        return remaining > 0 ? remaining / 1000 : 0;
-    }
-    
+    public void record(Action action, UUID playerId) {
+        Buckets bucket = buckets.get(action);
+        long tat = bucket.consume(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), false);
+        share(action, playerId, bucket, tat);
+    }
+
+    private void share(Action action, UUID playerId, Buckets bucket, long tat) {
+        SharedStore store = sharedStore;
+        if (store != null) {
+            // The store may know about uses on other servers, so adopt whatever it ends up with,
+            // unless a later refund or use already changed the bucket locally
+            store.record(action, playerId, TimeUnit.NANOSECONDS.toMillis(bucket.intervalNanos),
+                    fullAtMillis -> merge(action, playerId, fullAtMillis, tat));
+        }
+    }
+
     /**
-     * Checks if a Discord webhook can be sent
-     * @return true if allowed, false if still on cooldown
+     * Gives back a token taken by {@link #tryPerform} or {@link #record}, for an action that failed
      */
-    public static boolean canSendDiscordWebhook() {
-        long currentTime = System.currentTimeMillis();
-        return (currentTime - lastDiscordWebhookTime) >= DISCORD_WEBHOOK_COOLDOWN;
+    public void refund(Action action, UUID playerId) {
+        Buckets bucket = buckets.get(action);
+        SharedStore store = sharedStore;
+        if (store != null) {
+            store.refund(action, playerId, TimeUnit.NANOSECONDS.toMillis(bucket.intervalNanos));
+        }
+        bucket.refund(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
     }
-    
+
     /**
-     * Records that a Discord webhook was sent
+     * Moves the player's bucket to a stored state if that is further from full than the local one
+     * @param fullAtMillis Epoch time at which the stored bucket is full again
      */
-    public static void recordDiscordWebhook() {
-        lastDiscordWebhookTime = System.currentTimeMillis();
+    void merge(Action action, UUID playerId, long fullAtMillis) {
+        merge(action, playerId, fullAtMillis, DENIED);
     }
-    
+
     /**
-     * Gets the remaining cooldown time for Discord webhooks
-     * @return remaining time in seconds, 0 if no cooldown
+     * @param expectedTat Local state the stored one was derived from; the merge is skipped if the
+     *                    bucket has changed since, or DENIED to merge regardless
      */
-    public static long getDiscordWebhookCooldownRemaining() {
-        long currentTime = System.currentTimeMillis();
-        long elapsed = currentTime - lastDiscordWebhookTime;
-        long remaining = DISCORD_WEBHOOK_COOLDOWN - elapsed;
-        
-        return remaining > 0 ? remaining / 1000 : 0;
-    }
-    
+    private void merge(Action action, UUID playerId, long fullAtMillis, long expectedTat) {
+        // Stored times are wall clock so they mean the same on every server, local ones are nanoTime
+        long remainingMillis = fullAtMillis - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return;
+        }
+        buckets.get(action).merge(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(),
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis), expectedTat);
+    }
+
     /**
-     * Cleans up old entries to prevent memory leaks
-     * Should be called periodically
+     * Uses one token if the player has one left
+     * @return true if the action is allowed
      */
-    public static void cleanup() {
-        long currentTime = System.currentTimeMillis();
-        
-        // Remove bug report cooldowns older than the cooldown period
-        bugReportCooldowns.entrySet().removeIf(entry -> 
-                (currentTime - entry.getValue()) > BUG_REPORT_COOLDOWN * 2);
-        
-        // Remove comment cooldowns older than the cooldown period
-        commentCooldowns.entrySet().removeIf(entry -> 
-                (currentTime - entry.getValue()) > COMMENT_COOLDOWN * 2);
-    }
-}
\ No newline at end of file
+    public boolean tryPerform(Action action, UUID playerId) {
+        Buckets bucket = buckets.get(action);
+        long tat = bucket.consume(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), true);
+        if (tat == DENIED) {
+            return false;
+        }
+        share(action, playerId, bucket, tat);
+        return true;
+    }
+
+    /**
+     * Gets the time until the player regains a token
+     * @return remaining time in seconds, rounded up, 0 if the action is allowed now
+     */
+    public long getRemainingSeconds(Action action, UUID playerId) {
+        long nanos = getRemainingNanos(action, playerId);
+        return nanos == 0 ? 0 : (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private long getRemainingNanos(Action action, UUID playerId) {
+        return buckets.get(action).remaining(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+    }
+
+    /**
+     * All buckets of one action
+     */
+    private static final class Buckets {
+        private final Segment[] segments = new Segment[SEGMENTS];
+        private volatile int capacity;
+        private volatile long intervalNanos;
+
+        private Buckets() {
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment();
+            }
+        }
+
+        private void configure(int capacity, long intervalNanos) {
+            this.capacity = capacity;
+            this.intervalNanos = intervalNanos;
+        }
+
+        private long remaining(long hi, long lo) {
+            long hash = hash(hi, lo);
+            long now = System.nanoTime();
+            long burst = (capacity - 1) * intervalNanos;
+            Segment segment = segments[(int) (hash >>> 32) & (SEGMENTS - 1)];
+            synchronized (segment) {
+                int slot = segment.find(hi, lo, (int) hash, now);
+                if (slot < 0) {
+                    return 0;
+                }
+                return Math.max(0, segment.tat[slot] - burst - now);
+            }
+        }
+
+        /**
+         * @return The bucket's new theoretical arrival time, or DENIED if no token was left
+         */
+        private long consume(long hi, long lo, boolean onlyIfAllowed) {
+            long hash = hash(hi, lo);
+            long now = System.nanoTime();
+            long interval = intervalNanos;
+            long burst = (capacity - 1) * interval;
+            Segment segment = segments[(int) (hash >>> 32) & (SEGMENTS - 1)];
+            synchronized (segment) {
+                int slot = segment.find(hi, lo, (int) hash, now);
+                long tat = slot < 0 ? now : Math.max(segment.tat[slot], now);
+                if (onlyIfAllowed && tat - burst > now) {
+                    return DENIED;
+                }
+                if (slot < 0) {
+                    slot = segment.insert(hi, lo, (int) hash, now);
+                }
+                segment.tat[slot] = tat + interval;
+                return tat + interval;
+            }
+        }
+
+        private void refund(long hi, long lo) {
+            long hash = hash(hi, lo);
+            long now = System.nanoTime();
+            Segment segment = segments[(int) (hash >>> 32) & (SEGMENTS - 1)];
+            synchronized (segment) {
+                int slot = segment.find(hi, lo, (int) hash, now);
+                if (slot >= 0) {
+                    segment.tat[slot] -= intervalNanos;
+                }
+            }
+        }
+
+        private void merge(long hi, long lo, long tat, long expectedTat) {
+            long hash = hash(hi, lo);
+            long now = System.nanoTime();
+            Segment segment = segments[(int) (hash >>> 32) & (SEGMENTS - 1)];
+            synchronized (segment) {
+                if (expectedTat != DENIED) {
+                    // Refilled or reused entries count as changed too, a refund may have emptied the bucket
+                    int held = segment.locate(hi, lo, (int) hash);
+                    if (held < 0 || segment.tat[held] != expectedTat) {
+                        return;
+                    }
+                }
+                int slot = segment.find(hi, lo, (int) hash, now);
+                if (slot >= 0 && segment.tat[slot] - tat >= 0) {
+                    return;
+                }
+                if (slot < 0) {
+                    slot = segment.insert(hi, lo, (int) hash, now);
+                }
+                segment.tat[slot] = tat;
+            }
+        }
+
+        private static long hash(long hi, long lo) {
+            // MurmurHash3 finalizer, random UUIDs are uniform already but offline UUIDs are not
+            long h = hi ^ Long.rotateLeft(lo, 32);
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+
+    /**
+     * Linear probing table. A slot is free when unused or when its bucket is full again
+     * (tat at or before now); a free slot ends a probe only if it was never used.
+     */
+    private static final class Segment {
+        private long[] his = new long[INITIAL_SEGMENT_SIZE];
+        private long[] los = new long[INITIAL_SEGMENT_SIZE];
+        private long[] tat = new long[INITIAL_SEGMENT_SIZE];
+        private boolean[] used = new boolean[INITIAL_SEGMENT_SIZE];
+        private int occupied = 0;
+
+        /**
+         * @return Slot of the player's bucket if it is still refilling, otherwise -1
+         */
+        private int find(long hi, long lo, int hash, long now) {
+            int slot = locate(hi, lo, hash);
+            return slot >= 0 && tat[slot] - now > 0 ? slot : -1;
+        }
+
+        /**
+         * @return Slot holding the player's key, whether or not the bucket has refilled, otherwise -1
+         */
+        private int locate(long hi, long lo, int hash) {
+            int mask = used.length - 1;
+            for (int i = hash & mask; used[i]; i = (i + 1) & mask) {
+                if (his[i] == hi && los[i] == lo) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int insert(long hi, long lo, int hash, long now) {
+            int mask = used.length - 1;
+            int reusable = -1;
+            int i = hash & mask;
+            for (; used[i]; i = (i + 1) & mask) {
+                if (his[i] == hi && los[i] == lo) {
+                    return i;
+                }
+                if (reusable < 0 && tat[i] - now <= 0) {
+                    reusable = i;
+                }
+            }
+            if (reusable >= 0) {
+                his[reusable] = hi;
+                los[reusable] = lo;
+                return reusable;
+            }
+            if ((occupied + 1) * 4 > used.length * 3) {
+                rehash(now);
+                return insert(hi, lo, hash, now);
+            }
+            used[i] = true;
+            his[i] = hi;
+            los[i] = lo;
+            occupied++;
+            return i;
+        }
+
+        private void rehash(long now) {
+            long[] oldHis = his;
+            long[] oldLos = los;
+            long[] oldTat = tat;
+            boolean[] oldUsed = used;
+
+            // Drop full buckets while copying; only grow if most entries are still refilling
+            int live = 0;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i] && oldTat[i] - now > 0) {
+                    live++;
+                }
+            }
+            int size = oldUsed.length;
+            while ((live + 1) * 2 > size) {
+                size <<= 1;
+            }
+
+            his = new long[size];
+            los = new long[size];
+            tat = new long[size];
+            used = new boolean[size];
+            occupied = 0;
+            int mask = size - 1;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (!oldUsed[i] || oldTat[i] - now <= 0) {
+                    continue;
+                }
+                int slot = (int) Buckets.hash(oldHis[i], oldLos[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                his[slot] = oldHis[i];
+                los[slot] = oldLos[i];
+                tat[slot] = oldTat[i];
+                occupied++;
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package dev.msntech.msnreports.webhook;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import dev.msntech.msnreports.models.ReportStatus;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * Turns outbox events into Discord embeds. Colors are plain RGB constants, so
+ * rendering never loads AWT, and text is cleaned in a single pass per value.
+ */
+public class EmbedRenderer {
+    private static final int COLOR_BUG_REPORT = 0xDC143C;   // Crimson red
+    private static final int COLOR_COMMENT = 0x3498DB;      // Blue
+    private static final int COLOR_DELETION = 0xDC3545;     // Bootstrap danger red
+    private static final int COLOR_OPEN = 0x007BFF;         // Blue
+    private static final int COLOR_IN_PROGRESS = 0xFFC107;  // Yellow
+    private static final int COLOR_RESOLVED = 0x28A745;     // Green
+    private static final int COLOR_REJECTED = 0x6C757D;     // Gray
+
+    // Replacements applied by formatLocation, matched in this order at each position
+    private static final String[] LOCATION_TOKENS = {"World: ", ", X:", ", Y:", ", Z:"};
+    private static final String[] LOCATION_REPLACEMENTS = {"🌍 **World:** ", "\n📐 **X:** ", "\n🔺 **Y:** ", "\n📍 **Z:** "};
+
+    private final String footerPrefix;
+
+    /**
+     * @param version Plugin version shown in every footer
+     */
+    public EmbedRenderer(String version) {
+        this.footerPrefix = "msnReports-v" + version + " • ID: ";
+    }
+
+    public WebhookEmbed render(WebhookEvent event) {
+        return switch (event.getType()) {
+            case REPORT_CREATED -> renderBugReport(event);
+            case STATUS_CHANGED -> renderStatusUpdate(event);
+            case COMMENT_ADDED -> renderComment(event);
+            case REPORT_DELETED -> renderDeletion(event);
+        };
+    }
+
+    private WebhookEmbed renderBugReport(WebhookEvent event) {
+        int reportId = event.getReportId();
+        return new WebhookEmbedBuilder()
+                .setTitle(new WebhookEmbed.EmbedTitle("🐛 Bug Report #" + reportId, null))
+                .setDescription("**📝 Description:**\n" + stripColors(event.get("description")))
+                .addField(new WebhookEmbed.EmbedField(true, "👤 Reporter", stripColors(event.get("player"))))
+                .addField(new WebhookEmbed.EmbedField(true, "📊 Status", "Open"))
+                .addField(new WebhookEmbed.EmbedField(true, "⚡ Priority", "Normal"))
+                .addField(new WebhookEmbed.EmbedField(true, "❓ Game Mode", stripColors(event.get("gameMode"))))
+                .addField(new WebhookEmbed.EmbedField(true, "❤ Health", String.format("%.1f/20", parseDouble(event.get("health")))))
+                .addField(new WebhookEmbed.EmbedField(true, "⭐ Level", event.get("level")))
+                .addField(new WebhookEmbed.EmbedField(false, "📍 Location", stripColors(formatLocation(event.get("location")))))
+                .addField(new WebhookEmbed.EmbedField(false, "⏰ Reported", event.get("reported")))
+                .setColor(COLOR_BUG_REPORT)
+                .setTimestamp(eventTime(event))
+                .setFooter(footer(reportId))
+                .build();
+    }
+
+    private WebhookEmbed renderStatusUpdate(WebhookEvent event) {
+        int reportId = event.getReportId();
+        ReportStatus oldStatus = ReportStatus.fromString(event.get("oldStatus"));
+        ReportStatus newStatus = ReportStatus.fromString(event.get("newStatus"));
+        return new WebhookEmbedBuilder()
+                .setTitle(new WebhookEmbed.EmbedTitle(
+                        getStatusEmoji(newStatus) + " Report #" + reportId + " Status Updated", null))
+                .setDescription("Status changed from **" + oldStatus.getDisplay() + "** to **" + newStatus.getDisplay() + "**")
+                .addField(new WebhookEmbed.EmbedField(true, "Handler", stripColors(event.get("handler"))))
+                .addField(new WebhookEmbed.EmbedField(true, "New Status", newStatus.getDisplay()))
+                .setColor(getStatusColor(newStatus))
+                .setTimestamp(eventTime(event))
+                .setFooter(footer(reportId))
+                .build();
+    }
+
+    private WebhookEmbed renderComment(WebhookEvent event) {
+        int reportId = event.getReportId();
+        return new WebhookEmbedBuilder()
+                .setTitle(new WebhookEmbed.EmbedTitle("💬 Comment on Report #" + reportId, null))
+                .setDescription("**" + event.get("author") + "** added a comment:\n\n" +
+                        truncateText(stripColors(event.get("comment")), 300))
+                .setColor(COLOR_COMMENT)
+                .setTimestamp(eventTime(event))
+                .setFooter(footer(reportId))
+                .build();
+    }
+
+    private WebhookEmbed renderDeletion(WebhookEvent event) {
+        int reportId = event.getReportId();
+        String cleanDeletedBy = stripColors(event.get("deletedBy"));
+        String deletedByUuid = event.get("deletedByUuid");
+        return new WebhookEmbedBuilder()
+                .setTitle(new WebhookEmbed.EmbedTitle("🗑️ Report #" + reportId + " Deleted", null))
+                .setDescription("Report permanently deleted by **" + cleanDeletedBy + "**")
+                .addField(new WebhookEmbed.EmbedField(true, "�‍💼 **Action Performed By**",
+                        "**Admin:** `" + cleanDeletedBy + "`\n" +
+                        "**UUID:** `" + deletedByUuid.substring(0, Math.min(8, deletedByUuid.length())) + "...`\n" +
+                        "**Timestamp:** <t:" + (event.getTime() / 1000) + ":F>"))
+                .addField(new WebhookEmbed.EmbedField(true, "Original Reporter", stripColors(event.get("player"))))
+                .addField(new WebhookEmbed.EmbedField(false, "Original Description",
+                        truncateText(stripColors(event.get("description")), 200)))
+                .setColor(COLOR_DELETION)
+                .setTimestamp(eventTime(event))
+                .setFooter(footer(reportId))
+                .build();
+    }
+
+    private WebhookEmbed.EmbedFooter footer(int reportId) {
+        return new WebhookEmbed.EmbedFooter(footerPrefix + reportId, null);
+    }
+
+    private static OffsetDateTime eventTime(WebhookEvent event) {
+        // Replayed notifications keep the time the change actually happened
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(event.getTime()), ZoneId.systemDefault());
+    }
+
+    private static int getStatusColor(ReportStatus status) {
+        return switch (status) {
+            case OPEN -> COLOR_OPEN;
+            case IN_PROGRESS -> COLOR_IN_PROGRESS;
+            case RESOLVED -> COLOR_RESOLVED;
+            case REJECTED -> COLOR_REJECTED;
+        };
+    }
+
+    private static String getStatusEmoji(ReportStatus status) {
+        return switch (status) {
+            case OPEN -> "🆕";
+            case IN_PROGRESS -> "🔄";
+            case RESOLVED -> "✅";
+            case REJECTED -> "❌";
+        };
+    }
+
+    /**
+     * Removes § and & color codes in one pass. Matches the previous two regex passes:
+     * § codes go first, so an & joined to a code by a removed § code is removed as well.
+     */
+    public static String stripColors(String text) {
+        if (text == null) {
+            return null;
+        }
+        if (text.indexOf('§') < 0 && text.indexOf('&') < 0) {
+            return text;
+        }
+
+        int length = text.length();
+        StringBuilder out = new StringBuilder(length);
+        // An & below this index was already passed over, a regex pass would not revisit it
+        int floor = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '§' && i + 1 < length && isColorCode(text.charAt(i + 1))) {
+                i++;
+                continue;
+            }
+            int last = out.length() - 1;
+            if (last >= floor && isColorCode(c) && out.charAt(last) == '&') {
+                out.setLength(last);
+                floor = last;
+                continue;
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static boolean isColorCode(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'k' && c <= 'o') || c == 'r';
+    }
+
+    /**
+     * Puts each coordinate of a "World: w, X: x, Y: y, Z: z" location on its own line
+     */
+    static String formatLocation(String location) {
+        StringBuilder out = new StringBuilder(location.length() + 48);
+        int i = 0;
+        outer:
+        while (i < location.length()) {
+            for (int t = 0; t < LOCATION_TOKENS.length; t++) {
+                if (location.startsWith(LOCATION_TOKENS[t], i)) {
+                    out.append(LOCATION_REPLACEMENTS[t]);
+                    i += LOCATION_TOKENS[t].length();
+                    continue outer;
+                }
+            }
+            out.append(location.charAt(i++));
+        }
+        return out.toString();
+    }
+
+    private static String truncateText(String text, int maxLength) {
+        if (text.length() <= maxLength) {
+            return text;
+        }
+        return text.substring(0, maxLength - 3) + "...";
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package dev.msntech.msnreports.webhook;
+
+import dev.msntech.msnreports.App;
+import dev.msntech.msnreports.DiscordWebhookSender;
+import dev.msntech.msnreports.database.WebhookOutbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers the webhook outbox in id order. Rows are marked delivered only after
+ * Discord accepted the message, so a crash or shutdown before that point sends
+ * them again on the next start: delivery is at least once. All outbox work runs on
+ * one thread, which keeps polls, wake-ups and result bookkeeping from overlapping.
+ *
+ * Servers sharing a database each claim a row before sending it. Claims are leased
+ * and renewed on every poll while the delivery runs, so rows held by a server that
+ * stopped are picked up by another one once the lease runs out.
+ */
+public class OutboxDispatcher {
+    private static final int RECENT_RESULTS = 64;
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // Renewed every poll, so it only has to outlast a few missed polls
+    private static final long MIN_CLAIM_LEASE_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    // Another server sharing the database may hold the claim, so watchers look the row up after this
+    private static final long WATCH_TIMEOUT_SECONDS = 30;
+
+    private final App plugin;
+    private final WebhookOutbox outbox;
+    private final ScheduledExecutorService executor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollSeconds;
+    private final Duration retention;
+    private final long claimLeaseMillis;
+    private final String owner = UUID.randomUUID().toString();
+    // Only touched on the outbox thread
+    private final Set<Long> inFlight = new HashSet<>();
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+    private final Map<String, CompletableFuture<Boolean>> watchers = new HashMap<>();
+    private final Map<String, Boolean> recentResults = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_RESULTS;
+        }
+    };
+    private long lastPurge = 0;
+
+    public OutboxDispatcher(App plugin, WebhookOutbox outbox) {
+        this.plugin = plugin;
+        this.outbox = outbox;
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("discord.outbox.batch-size", 50));
+        this.maxAttempts = Math.max(1, plugin.getConfig().getInt("discord.outbox.max-attempts", 20));
+        this.pollSeconds = Math.max(1, plugin.getConfig().getLong("discord.outbox.poll-interval-seconds", 5));
+        this.retention = Duration.ofHours(Math.max(1, plugin.getConfig().getLong("discord.outbox.retention-hours", 72)));
+        this.claimLeaseMillis = Math.max(MIN_CLAIM_LEASE_MILLIS, TimeUnit.SECONDS.toMillis(pollSeconds * 6));
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "msnReports-Outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts polling; anything left over from before a restart goes out on the first poll
+     */
+    public void start() {
+        outbox.setListener(this::wake);
+        executor.scheduleWithFixedDelay(this::poll, 0, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Drains the outbox soon instead of waiting for the next poll. Cheap to call
+     * repeatedly, wake-ups that arrive while one is queued are merged.
+     */
+    public void wake() {
+        if (wakeQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    wakeQueued.set(false);
+                    drain();
+                });
+            } catch (RejectedExecutionException e) {
+                wakeQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Completes once the first delivery attempt for an event has finished. If this
+     * server has not attempted it within the watch timeout, the outbox row decides,
+     * since another server may have claimed and delivered it.
+     * @return future completing with true if Discord accepted the notification
+     */
+    public CompletableFuture<Boolean> watch(WebhookEvent.Type type, int reportId, String ref) {
+        String key = new WebhookEvent(type, reportId, ref, Map.of()).getKey();
+        CompletableFuture<Boolean> watcher;
+        synchronized (watchers) {
+            Boolean result = recentResults.get(key);
+            if (result != null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            watcher = watchers.get(key);
+            if (watcher != null) {
+                return watcher;
+            }
+            watcher = new CompletableFuture<>();
+            watchers.put(key, watcher);
+        }
+        try {
+            executor.schedule(() -> expire(key, type, reportId, ref), WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, this server will not deliver it any more
+            synchronized (watchers) {
+                watchers.remove(key);
+            }
+            watcher.complete(false);
+        }
+        return watcher;
+    }
+
+    private void expire(String key, WebhookEvent.Type type, int reportId, String ref) {
+        CompletableFuture<Boolean> watcher;
+        synchronized (watchers) {
+            watcher = watchers.remove(key);
+        }
+        if (watcher != null) {
+            watcher.complete(outbox.isDelivered(type, reportId, ref));
+        }
+    }
+
+    private void poll() {
+        try {
+            if (!inFlight.isEmpty()) {
+                outbox.renewClaims(owner, claimLeaseMillis);
+            }
+            drain();
+            long now = System.currentTimeMillis();
+            if (now - lastPurge >= PURGE_INTERVAL_MILLIS) {
+                lastPurge = now;
+                int purged = outbox.purge(Instant.now().minus(retention));
+                if (purged > 0) {
+                    plugin.getLogger().info("Removed " + purged + " old entries from the webhook outbox");
+                }
+            }
+        } catch (Exception e) {
+            // An exception would cancel the scheduled poll, so log and keep going
+            plugin.getLogger().severe("Webhook outbox poll failed: " + e.getMessage());
+        }
+    }
+
+    private void drain() {
+        DiscordWebhookSender sender = plugin.getWebhookSender();
+        if (sender == null || plugin.getDatabaseManager() == null || plugin.getDatabaseManager().isClosed()) {
+            return;
+        }
+        int capacity = batchSize - inFlight.size();
+        if (capacity <= 0) {
+            return;
+        }
+        // Events for a webhook without a valid URL wait until it is configured, or until they expire
+        Set<WebhookEvent.Type> deliverable = EnumSet.noneOf(WebhookEvent.Type.class);
+        for (WebhookEvent.Type type : WebhookEvent.Type.values()) {
+            if (sender.canDeliver(type)) {
+                deliverable.add(type);
+            }
+        }
+
+        // Our claims normally hide rows already handed to the sender, but a lapsed lease shows them again
+        for (WebhookOutbox.Entry entry : outbox.fetchPending(capacity + inFlight.size(), maxAttempts, deliverable)) {
+            if (capacity == 0) {
+                break;
+            }
+            WebhookEvent event = entry.getEvent();
+            if (inFlight.contains(entry.getId())) {
+                continue;
+            }
+            if (!outbox.claim(entry.getId(), owner, claimLeaseMillis)) {
+                continue; // Another server is sending it
+            }
+            inFlight.add(entry.getId());
+            capacity--;
+            sender.deliver(event).whenCompleteAsync((sent, error) ->
+                    complete(entry, sent != null && sent), executor);
+        }
+    }
+
+    private void complete(WebhookOutbox.Entry entry, boolean sent) {
+        inFlight.remove(entry.getId());
+        WebhookEvent event = entry.getEvent();
+        if (sent) {
+            outbox.markDelivered(entry.getId());
+        } else {
+            outbox.recordFailure(entry.getId());
+            if (entry.getAttempts() + 1 >= maxAttempts) {
+                plugin.getLogger().warning("Giving up on Discord notification " + event.getKey() +
+                        " after " + maxAttempts + " attempts");
+            }
+        }
+
+        CompletableFuture<Boolean> watcher;
+        synchronized (watchers) {
+            watcher = watchers.remove(event.getKey());
+            if (watcher == null) {
+                recentResults.put(event.getKey(), sent);
+            }
+        }
+        if (watcher != null) {
+            watcher.complete(sent);
+        }
+    }
+
+    /**
+     * Stops polling and records the results of deliveries that already finished.
+     * Anything not yet marked delivered stays in the outbox for the next start.
+     */
+    public void close() {
+        outbox.setListener(null);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        synchronized (watchers) {
+            watchers.values().forEach(watcher -> watcher.complete(false));
+            watchers.clear();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package dev.msntech.msnreports.webhook;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.bukkit.plugin.Plugin;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound queue for all Discord webhooks. Each webhook gets its own lane, so a
+ * rate-limited or failing webhook never holds up notifications for the others.
+ * All lanes share one HTTP client, so they reuse the same kept-alive connection
+ * to Discord and a small, bounded set of threads.
+ */
+public class WebhookDispatcher {
+    public enum Channel {
+        REPORTS("Reports", "reports"),
+        ADMIN_CHANGES("Admin Changes", "admin-changes"),
+        ADMIN_NOTES("Admin Notes", "admin-notes"),
+        STATUS_CHANGES("Status Changes", "status-changes");
+
+        private final String display;
+        private final String configKey;
+
+        Channel(String display, String configKey) {
+            this.display = display;
+            this.configKey = configKey;
+        }
+
+        public String getDisplay() {
+            return display;
+        }
+
+        /**
+         * @return The key of this webhook's section under discord.webhooks in config.yml
+         */
+        public String getConfigKey() {
+            return configKey;
+        }
+    }
+
+    // Each lane has at most one request in flight, so this also bounds the HTTP threads
+    private static final int MAX_HTTP_THREADS = Channel.values().length;
+
+    private final Plugin plugin;
+    private final String username;
+    private final OkHttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Channel, WebhookLane> lanes = new EnumMap<>(Channel.class);
+    private final int queueSize;
+    private final int maxAttempts;
+    private final long batchWindowMillis;
+
+    /**
+     * @param username Name shown as the sender of every message
+     */
+    public WebhookDispatcher(Plugin plugin, String username) {
+        this.plugin = plugin;
+        this.username = username;
+        this.queueSize = plugin.getConfig().getInt("discord.queue.max-size", 100);
+        this.maxAttempts = plugin.getConfig().getInt("discord.queue.max-attempts", 8);
+        this.batchWindowMillis = plugin.getConfig().getLong("discord.queue.batch-window-ms", 750);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // OkHttp hands the next call to the executor from a worker that is still finishing
+        // its previous one, so calls must be able to wait for a thread instead of being
+        // rejected. The dispatcher never runs more than MAX_HTTP_THREADS, so the queue stays small.
+        ThreadPoolExecutor httpExecutor = new ThreadPoolExecutor(MAX_HTTP_THREADS, MAX_HTTP_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_HTTP_THREADS * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "msnReports-Webhook-HTTP-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        httpExecutor.allowCoreThreadTimeOut(true);
+        Dispatcher httpDispatcher = new Dispatcher(httpExecutor);
+        httpDispatcher.setMaxRequests(MAX_HTTP_THREADS);
+        httpDispatcher.setMaxRequestsPerHost(MAX_HTTP_THREADS);
+        this.httpClient = new OkHttpClient.Builder()
+                .dispatcher(httpDispatcher)
+                // Discord serves every webhook from one host, so a single HTTP/2 connection
+                // kept alive between notifications avoids a TLS handshake per message
+                .connectionPool(new ConnectionPool(2, 5, TimeUnit.MINUTES))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "msnReports-Webhook");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Registers the webhook URL for a channel. Channels without a URL drop their messages.
+     * Registering the URL a channel already uses keeps its lane and queued messages.
+     * @return Whether the channel's lane was replaced
+     */
+    public synchronized boolean register(Channel channel, String url) {
+        WebhookLane current = lanes.get(channel);
+        if (current != null && current.getUrl().equals(url)) {
+            return false;
+        }
+        lanes.put(channel, new WebhookLane(channel.getDisplay(), url, httpClient, scheduler,
+                plugin.getLogger(), username, queueSize, maxAttempts, batchWindowMillis));
+        closeLane(channel, current);
+        return true;
+    }
+
+    /**
+     * Removes a channel's webhook, failing its queued messages
+     * @return Whether the channel had a webhook
+     */
+    public synchronized boolean unregister(Channel channel) {
+        WebhookLane current = lanes.remove(channel);
+        closeLane(channel, current);
+        return current != null;
+    }
+
+    private void closeLane(Channel channel, WebhookLane lane) {
+        if (lane == null) {
+            return;
+        }
+        // The outbox sends failed notifications again, now through the new URL
+        int dropped = lane.close();
+        if (dropped > 0) {
+            plugin.getLogger().info(dropped + " queued " + channel.getDisplay() + " notifications will be resent");
+        }
+    }
+
+    public synchronized boolean isRegistered(Channel channel) {
+        return lanes.containsKey(channel);
+    }
+
+    /**
+     * Queues an embed for delivery. Embeds for the same webhook that arrive close
+     * together are combined into one message, in the order they were queued.
+     * @return future completing with true once Discord accepted the embed, or false if it was dropped
+     */
+    public CompletableFuture<Boolean> send(Channel channel, WebhookEmbed embed) {
+        WebhookLane lane;
+        synchronized (this) {
+            lane = lanes.get(channel);
+        }
+        if (lane == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return lane.enqueue(embed);
+    }
+
+    /**
+     * Waits briefly for queued notifications to go out, then stops all lanes
+     * @param timeoutMillis Maximum time to wait for the queues to drain
+     */
+    public void close(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (System.currentTimeMillis() < deadline && pendingCount() > 0) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int dropped = 0;
+        synchronized (this) {
+            for (WebhookLane lane : lanes.values()) {
+                dropped += lane.close();
+            }
+        }
+        if (dropped > 0) {
+            plugin.getLogger().warning(dropped + " Discord notifications were not sent before shutdown");
+        }
+
+        scheduler.shutdownNow();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    private synchronized int pendingCount() {
+        int pending = 0;
+        for (WebhookLane lane : lanes.values()) {
+            pending += lane.size();
+        }
+        return pending;
+    }
+}
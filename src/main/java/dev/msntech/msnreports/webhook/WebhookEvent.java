@@ -0,0 +1,189 @@
+package dev.msntech.msnreports.webhook;
+
+import dev.msntech.msnreports.BugReport;
+import dev.msntech.msnreports.models.ReportStatus;
+import dev.msntech.msnreports.webhook.WebhookDispatcher.Channel;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A Discord notification as stored in the webhook outbox. It carries every value the
+ * message shows, so it can still be sent after a restart or after the report is gone.
+ */
+public class WebhookEvent {
+    public enum Type {
+        REPORT_CREATED(Channel.REPORTS),
+        STATUS_CHANGED(Channel.STATUS_CHANGES),
+        COMMENT_ADDED(Channel.ADMIN_NOTES),
+        REPORT_DELETED(Channel.ADMIN_CHANGES);
+
+        private final Channel channel;
+
+        Type(Channel channel) {
+            this.channel = channel;
+        }
+
+        public Channel getChannel() {
+            return channel;
+        }
+
+        /**
+         * @return The matching type, or null for types written by a newer version
+         */
+        public static Type fromString(String type) {
+            try {
+                return valueOf(type);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                return null;
+            }
+        }
+    }
+
+    private final Type type;
+    private final int reportId;
+    private final String ref;
+    private final Map<String, String> fields;
+
+    /**
+     * @param ref Distinguishes repeated events of the same type on one report, empty if there are none
+     */
+    public WebhookEvent(Type type, int reportId, String ref, Map<String, String> fields) {
+        this.type = type;
+        this.reportId = reportId;
+        this.ref = ref == null ? "" : ref;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    public static WebhookEvent reportCreated(int reportId, BugReport report) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("player", report.getPlayerName());
+        fields.put("description", report.getDescription());
+        fields.put("location", report.getLocation());
+        fields.put("gameMode", report.getGameMode());
+        fields.put("health", String.valueOf(report.getHealth()));
+        fields.put("level", String.valueOf(report.getLevel()));
+        fields.put("reported", report.getTimestamp());
+        fields.put("time", String.valueOf(System.currentTimeMillis()));
+        return new WebhookEvent(Type.REPORT_CREATED, reportId, "", fields);
+    }
+
+    public static WebhookEvent statusChanged(int reportId, ReportStatus oldStatus, ReportStatus newStatus, String handler) {
+        long now = System.currentTimeMillis();
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("oldStatus", oldStatus.name());
+        fields.put("newStatus", newStatus.name());
+        fields.put("handler", handler);
+        fields.put("time", String.valueOf(now));
+        // A report can move between the same statuses more than once
+        return new WebhookEvent(Type.STATUS_CHANGED, reportId, String.valueOf(now), fields);
+    }
+
+    public static WebhookEvent commentAdded(int reportId, long commentId, String author, String comment) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("author", author);
+        fields.put("comment", comment);
+        fields.put("time", String.valueOf(System.currentTimeMillis()));
+        return new WebhookEvent(Type.COMMENT_ADDED, reportId, String.valueOf(commentId), fields);
+    }
+
+    public static WebhookEvent reportDeleted(int reportId, String playerName, String description,
+                                             String deletedBy, String deletedByUuid) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("player", playerName);
+        fields.put("description", description);
+        fields.put("deletedBy", deletedBy);
+        fields.put("deletedByUuid", deletedByUuid);
+        fields.put("time", String.valueOf(System.currentTimeMillis()));
+        return new WebhookEvent(Type.REPORT_DELETED, reportId, "", fields);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getReportId() {
+        return reportId;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    /**
+     * @return The field value, or an empty string if it is missing
+     */
+    public String get(String field) {
+        String value = fields.get(field);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * @return When the event happened, so replays show the original time
+     */
+    public long getTime() {
+        try {
+            return Long.parseLong(fields.get("time"));
+        } catch (NumberFormatException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @return Identity of the event, matching the outbox's unique key
+     */
+    public String getKey() {
+        return type.name() + ":" + reportId + ":" + ref;
+    }
+
+    /**
+     * Serializes the fields as "key=value" lines, escaping backslashes and line breaks
+     */
+    public String encodeFields() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() == null) {
+                continue;
+            }
+            builder.append(field.getKey()).append('=');
+            String value = field.getValue();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> builder.append("\\\\");
+                    case '\n' -> builder.append("\\n");
+                    case '\r' -> builder.append("\\r");
+                    default -> builder.append(c);
+                }
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reverses {@link #encodeFields()}
+     */
+    public static Map<String, String> decodeFields(String encoded) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String line : encoded.split("\n")) {
+            int separator = line.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            StringBuilder value = new StringBuilder(line.length() - separator);
+            for (int i = separator + 1; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '\\' && i + 1 < line.length()) {
+                    char next = line.charAt(++i);
+                    value.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+                } else {
+                    value.append(c);
+                }
+            }
+            fields.put(line.substring(0, separator), value.toString());
+        }
+        return fields;
+    }
+}
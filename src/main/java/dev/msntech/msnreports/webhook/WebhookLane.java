@@ -0,0 +1,337 @@
+package dev.msntech.msnreports.webhook;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookMessage;
+import club.minnced.discord.webhook.send.WebhookMessageBuilder;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Delivery queue for a single Discord webhook. Embeds are sent in order, one request at
+ * a time, waiting out Discord's rate limit bucket (X-RateLimit-* and Retry-After headers)
+ * and backing off exponentially on server errors and network failures. Embeds arriving
+ * within the batch window share one message, up to Discord's per-message limits; when Discord
+ * rejects such a message it is resent in halves so only the offending embed is dropped.
+ */
+class WebhookLane {
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60000;
+    // Discord's limits for a single webhook message
+    static final int MAX_EMBEDS = 10;
+    static final int MAX_EMBED_CHARS = 6000;
+
+    private final String name;
+    private final String url;
+    private final OkHttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final Logger logger;
+    private final String username;
+    private final int capacity;
+    private final int maxAttempts;
+    private final long batchWindowNanos;
+    private final Deque<Delivery> queue = new ArrayDeque<>();
+    // Failed sends of the batch at the head of the queue
+    private int attempts = 0;
+    private boolean inFlight = false;
+    private boolean wakeupScheduled = false;
+    private boolean closed = false;
+    // System.nanoTime() before which nothing may be sent, set by rate limits and backoff
+    private long blockedUntil = 0;
+    // Head embeds still being resent in smaller batches after Discord rejected their message
+    private int isolating = 0;
+    private int isolateLimit = MAX_EMBEDS;
+
+    static class Delivery {
+        private final WebhookEmbed embed;
+        private final int chars;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Delivery(WebhookEmbed embed) {
+            this.embed = embed;
+            this.chars = countChars(embed);
+        }
+    }
+
+    WebhookLane(String name, String url, OkHttpClient httpClient, ScheduledExecutorService scheduler,
+                Logger logger, String username, int capacity, int maxAttempts, long batchWindowMillis) {
+        this.name = name;
+        this.url = url;
+        this.httpClient = httpClient;
+        this.scheduler = scheduler;
+        this.logger = logger;
+        this.username = username;
+        this.capacity = Math.max(1, capacity);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batchWindowMillis));
+    }
+
+    /**
+     * @return future completing with true once Discord accepted the embed, or false if it was dropped
+     */
+    CompletableFuture<Boolean> enqueue(WebhookEmbed embed) {
+        Delivery delivery = new Delivery(embed);
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (queue.size() >= capacity) {
+                // Bounded so an unreachable Discord cannot grow memory without limit
+                logger.warning(name + " webhook queue is full (" + capacity + "), dropping notification");
+                return CompletableFuture.completedFuture(false);
+            }
+            queue.addLast(delivery);
+        }
+        schedulePump();
+        return delivery.future;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    synchronized int size() {
+        return queue.size();
+    }
+
+    private void schedulePump() {
+        try {
+            scheduler.execute(this::pump);
+        } catch (RejectedExecutionException e) {
+            // Dispatcher is shutting down
+        }
+    }
+
+    private void pump() {
+        List<Delivery> batch;
+        synchronized (this) {
+            if (inFlight || closed || queue.isEmpty()) {
+                return;
+            }
+            // Hold the first embed for the batch window unless a full message is already waiting
+            long readyAt = queue.size() >= MAX_EMBEDS
+                    ? blockedUntil
+                    : Math.max(blockedUntil, queue.peekFirst().enqueuedAt + batchWindowNanos);
+            long wait = readyAt - System.nanoTime();
+            if (wait > 0) {
+                if (!wakeupScheduled) {
+                    wakeupScheduled = true;
+                    scheduler.schedule(this::wakeup, wait, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+            batch = takeBatch();
+            inFlight = true;
+        }
+
+        List<WebhookEmbed> embeds = new ArrayList<>(batch.size());
+        for (Delivery delivery : batch) {
+            embeds.add(delivery.embed);
+        }
+        WebhookMessage message = new WebhookMessageBuilder()
+                .setUsername(username)
+                .addEmbeds(embeds)
+                .build();
+        Request request = new Request.Builder()
+                .url(url)
+                .post(message.getBody())
+                .build();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                retryLater(batch, "network error: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    handleResponse(batch, response.code(), response.headers());
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes the longest prefix of the queue that fits in one message. The embeds stay
+     * queued until the send finishes, and later embeds never overtake earlier ones.
+     */
+    synchronized List<Delivery> takeBatch() {
+        // While isolating a rejected message, never mix its embeds with newer ones
+        int limit = isolating > 0 ? Math.min(isolateLimit, isolating) : MAX_EMBEDS;
+        List<Delivery> batch = new ArrayList<>(Math.min(queue.size(), limit));
+        int chars = 0;
+        for (Delivery delivery : queue) {
+            // An oversized embed still goes alone, Discord's rejection then drops just that one
+            if (batch.size() == limit || (!batch.isEmpty() && chars + delivery.chars > MAX_EMBED_CHARS)) {
+                break;
+            }
+            batch.add(delivery);
+            chars += delivery.chars;
+        }
+        return batch;
+    }
+
+    /**
+     * Counts the characters Discord applies its 6000 per message limit to
+     */
+    static int countChars(WebhookEmbed embed) {
+        int chars = length(embed.getDescription());
+        if (embed.getTitle() != null) {
+            chars += length(embed.getTitle().getText());
+        }
+        if (embed.getFooter() != null) {
+            chars += length(embed.getFooter().getText());
+        }
+        if (embed.getAuthor() != null) {
+            chars += length(embed.getAuthor().getName());
+        }
+        if (embed.getFields() != null) {
+            for (WebhookEmbed.EmbedField field : embed.getFields()) {
+                chars += length(field.getName()) + length(field.getValue());
+            }
+        }
+        return chars;
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    private void wakeup() {
+        synchronized (this) {
+            wakeupScheduled = false;
+        }
+        pump();
+    }
+
+    void handleResponse(List<Delivery> batch, int code, Headers headers) {
+        updateBucket(headers);
+
+        if (code >= 200 && code < 300) {
+            finish(batch, true);
+        } else if (code == 429) {
+            // Rate limited: wait as long as Discord asks and retry without counting an attempt
+            long retryAfterMillis = parseSecondsToMillis(headers.get("Retry-After"), 1000);
+            synchronized (this) {
+                blockedUntil = Math.max(blockedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+                inFlight = false;
+            }
+            schedulePump();
+        } else if (code >= 500) {
+            retryLater(batch, "HTTP " + code);
+        } else if (batch.size() > 1 && (code == 400 || code == 413)) {
+            // One bad embed rejects the whole message: resend in halves until it goes alone
+            synchronized (this) {
+                if (isolating == 0) {
+                    isolating = batch.size();
+                }
+                isolateLimit = batch.size() / 2;
+                inFlight = false;
+            }
+            schedulePump();
+        } else {
+            // Other 4xx responses (bad payload, deleted webhook) will never succeed
+            logger.warning(name + " webhook rejected " + batch.size() + " notification(s) with HTTP " + code);
+            finish(batch, false);
+        }
+    }
+
+    private void updateBucket(Headers headers) {
+        // Discord reports the remaining requests in the current bucket and when it resets
+        String remaining = headers.get("X-RateLimit-Remaining");
+        if ("0".equals(remaining)) {
+            long resetAfterMillis = parseSecondsToMillis(headers.get("X-RateLimit-Reset-After"), 1000);
+            synchronized (this) {
+                blockedUntil = Math.max(blockedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(resetAfterMillis));
+            }
+        }
+    }
+
+    private void retryLater(List<Delivery> batch, String reason) {
+        synchronized (this) {
+            attempts++;
+            if (attempts >= maxAttempts) {
+                logger.warning(name + " webhook dropped " + batch.size() + " notification(s) after " + attempts +
+                        " attempts (" + reason + ")");
+            } else {
+                // Exponential backoff with jitter so lanes do not retry in lockstep
+                long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempts - 1, 16));
+                backoff += ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+                blockedUntil = Math.max(blockedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff));
+                inFlight = false;
+                schedulePump();
+                return;
+            }
+        }
+        finish(batch, false);
+    }
+
+    private void finish(List<Delivery> batch, boolean sent) {
+        synchronized (this) {
+            // The batch is still the head of the queue unless close() already cleared it
+            Iterator<Delivery> iterator = queue.iterator();
+            for (int i = 0; i < batch.size() && iterator.hasNext(); i++) {
+                if (iterator.next() == batch.get(i)) {
+                    iterator.remove();
+                }
+            }
+            if (isolating > 0) {
+                isolating = Math.max(0, isolating - batch.size());
+                if (isolating == 0) {
+                    isolateLimit = MAX_EMBEDS;
+                }
+            }
+            attempts = 0;
+            inFlight = false;
+        }
+        for (Delivery delivery : batch) {
+            delivery.future.complete(sent);
+        }
+        schedulePump();
+    }
+
+    private static long parseSecondsToMillis(String seconds, long fallbackMillis) {
+        if (seconds == null) {
+            return fallbackMillis;
+        }
+        try {
+            return (long) Math.ceil(Double.parseDouble(seconds) * 1000);
+        } catch (NumberFormatException e) {
+            return fallbackMillis;
+        }
+    }
+
+    /**
+     * Stops sending and fails everything still queued
+     * @return Number of notifications that were not delivered
+     */
+    int close() {
+        Delivery[] pending;
+        synchronized (this) {
+            closed = true;
+            pending = queue.toArray(new Delivery[0]);
+            queue.clear();
+        }
+        for (Delivery delivery : pending) {
+            delivery.future.complete(false);
+        }
+        return pending.length;
+    }
+}
@@ -0,0 +1,197 @@
+package dev.msntech.msnreports.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.msntech.msnreports.utils.EncryptionUtil;
+import org.bukkit.plugin.Plugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaMigratorTest {
+    private static final String KEY = "test-key";
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final List<LogRecord> errors = new ArrayList<>();
+    private Path file;
+    private HikariDataSource dataSource;
+    private Plugin plugin;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("msnreports-test", ".db");
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + file.toAbsolutePath());
+        config.setMaximumPoolSize(1);
+        dataSource = new HikariDataSource(config);
+
+        Logger logger = Logger.getLogger("SchemaMigratorTest");
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.SEVERE) {
+                    errors.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        // The migrator only logs through the plugin
+        plugin = (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[] {Plugin.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getLogger":
+                            return logger;
+                        case "getName":
+                        case "toString":
+                            return "msnReports";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.close();
+        Files.deleteIfExists(file);
+    }
+
+    private DatabaseManager database(String key) {
+        return new DatabaseManager(plugin, dataSource, key);
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private int insertReport(String comments) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO bug_reports " +
+                     "(player_name, player_uuid, description, world, x, y, z, comments) VALUES (?, ?, ?, ?, 0, 64, 0, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, "player");
+            stmt.setString(2, "uuid");
+            stmt.setString(3, "description");
+            stmt.setString(4, "world");
+            stmt.setString(5, comments);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private String legacyComments(int reportId) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT comments FROM bug_reports WHERE id = ?")) {
+            stmt.setInt(1, reportId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    @Test
+    public void rerunOnMigratedDatabaseChangesNothing() throws Exception {
+        DatabaseManager database = database(KEY);
+        new SchemaMigrator(database, plugin, false).migrate();
+        long versions = count("SELECT COUNT(*) FROM schema_version");
+        long latest = count("SELECT MAX(version) FROM schema_version");
+        assertTrue(versions > 0);
+        assertEquals(versions, latest);
+
+        new SchemaMigrator(database, plugin, false).migrate();
+        new SchemaMigrator(database(KEY), plugin, false).migrate();
+
+        assertEquals(versions, count("SELECT COUNT(*) FROM schema_version"));
+        assertEquals(latest, count("SELECT MAX(version) FROM schema_version"));
+        assertTrue("Migration errors: " + errors.size(), errors.isEmpty());
+    }
+
+    @Test
+    public void legacyCommentsMoveOnceWithUtcTimestamps() throws Exception {
+        DatabaseManager database = database(KEY);
+        int reportId = insertReport(database.encrypt(
+                "[2024-03-01 10:15:00] 📝 Admin: checked it\n[2024-03-02 08:00:00] ✅ Mod: fixed"));
+
+        new SchemaMigrator(database, plugin, false).migrate();
+        new SchemaMigrator(database, plugin, false).migrate();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM report_comments WHERE report_id = " + reportId));
+        assertNull(legacyComments(reportId));
+
+        // Written in the server's local time, stored in UTC like CURRENT_TIMESTAMP
+        String expected = LocalDateTime.parse("2024-03-01 10:15:00", TIMESTAMP_FORMAT)
+                .atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(ZoneOffset.UTC)
+                .format(TIMESTAMP_FORMAT);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT author, content, comment_type, created_at FROM report_comments WHERE report_id = ? ORDER BY id")) {
+            stmt.setInt(1, reportId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("Admin", database.decrypt(rs.getString("author")));
+                assertEquals("checked it", database.decrypt(rs.getString("content")));
+                assertEquals("STAFF_NOTE", rs.getString("comment_type"));
+                assertEquals(expected, rs.getString("created_at"));
+                assertTrue(rs.next());
+                assertEquals("RESOLUTION", rs.getString("comment_type"));
+            }
+        }
+        assertTrue("Migration errors: " + errors.size(), errors.isEmpty());
+    }
+
+    @Test
+    public void undecryptableCommentsWaitForTheirKey() throws Exception {
+        String otherKey = "previous-key";
+        int reportId = insertReport(new EncryptionUtil(otherKey).encrypt("[2024-03-01 10:15:00] 📝 Admin: old note"));
+
+        new SchemaMigrator(database(KEY), plugin, false).migrate();
+        assertEquals(0, count("SELECT COUNT(*) FROM report_comments"));
+        assertNotNull(legacyComments(reportId));
+
+        // Restoring the key they were written with moves them on the next start
+        new SchemaMigrator(database(otherKey), plugin, false).migrate();
+        assertEquals(1, count("SELECT COUNT(*) FROM report_comments WHERE report_id = " + reportId));
+        assertNull(legacyComments(reportId));
+        assertTrue("Migration errors: " + errors.size(), errors.isEmpty());
+    }
+}
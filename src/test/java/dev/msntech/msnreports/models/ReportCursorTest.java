@@ -0,0 +1,48 @@
+package dev.msntech.msnreports.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ReportCursorTest {
+
+    private static void assertRoundTrip(ReportCursor cursor) {
+        ReportCursor decoded = ReportCursor.decode(cursor.encode());
+        assertEquals(cursor.getDirection(), decoded.getDirection());
+        assertEquals(cursor.getPage(), decoded.getPage());
+        assertEquals(cursor.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(cursor.getId(), decoded.getId());
+    }
+
+    @Test
+    public void roundTripsBothDirections() {
+        assertRoundTrip(new ReportCursor(ReportCursor.Direction.NEXT, 2, "2024-05-01 12:30:00", 42));
+        assertRoundTrip(new ReportCursor(ReportCursor.Direction.PREVIOUS, 7, "2024-05-01 12:30:00", 1));
+    }
+
+    @Test
+    public void roundTripsTimestampWithSeparators() {
+        // Only the first two separators split the token, the timestamp keeps the rest
+        assertRoundTrip(new ReportCursor(ReportCursor.Direction.NEXT, 3, "2024-05-01 12:30:00.123|x", 99));
+    }
+
+    @Test
+    public void encodesToCommandSafeToken() {
+        String token = new ReportCursor(ReportCursor.Direction.NEXT, 1000, "2024-12-31 23:59:59", Integer.MAX_VALUE).encode();
+        assertTrue(token.matches("[np][A-Za-z0-9_-]+"));
+        // Never taken for a page number by /mr list
+        assertFalse(token.chars().allMatch(Character::isDigit));
+    }
+
+    @Test
+    public void rejectsMalformedTokens() {
+        String[] tokens = {null, "", "n", "x" + new ReportCursor(ReportCursor.Direction.NEXT, 1, "t", 1).encode().substring(1),
+                "n!!!", "nMXwy", "nYXwxfHQ"};
+        for (String token : tokens) {
+            assertThrows(IllegalArgumentException.class, () -> ReportCursor.decode(token));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.msntech.msnreports.utils;
+
+import dev.msntech.msnreports.utils.RateLimiter.Action;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private static RateLimiter limiter(int capacity, long refillSeconds) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("rate-limits.comment.capacity", capacity);
+        config.set("rate-limits.comment.refill-seconds", refillSeconds);
+        return new RateLimiter(config);
+    }
+
+    /**
+     * Keeps the callbacks instead of talking to a database, so tests decide when results arrive
+     */
+    private static class RecordingStore implements RateLimiter.SharedStore {
+        private final List<String> operations = new ArrayList<>();
+        private final List<LongConsumer> pendingRecords = new ArrayList<>();
+
+        @Override
+        public void record(Action action, UUID playerId, long refillMillis, LongConsumer onStored) {
+            operations.add("record");
+            pendingRecords.add(onStored);
+        }
+
+        @Override
+        public void refund(Action action, UUID playerId, long refillMillis) {
+            operations.add("refund");
+        }
+
+        @Override
+        public void load(UUID playerId, BiConsumer<Action, Long> onLoaded) {
+            operations.add("load");
+        }
+    }
+
+    @Test
+    public void allowsBurstUpToCapacity() {
+        RateLimiter limiter = limiter(3, 60);
+        UUID player = UUID.randomUUID();
+
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        assertFalse(limiter.tryPerform(Action.COMMENT, player));
+        assertFalse(limiter.canPerform(Action.COMMENT, player));
+
+        long remaining = limiter.getRemainingSeconds(Action.COMMENT, player);
+        assertTrue(remaining > 0 && remaining <= 60);
+        // Other actions and players have their own buckets
+        assertTrue(limiter.canPerform(Action.BUG_REPORT, player));
+        assertTrue(limiter.canPerform(Action.COMMENT, UUID.randomUUID()));
+    }
+
+    @Test
+    public void zeroRefillNeverLimits() {
+        RateLimiter limiter = limiter(1, 0);
+        UUID player = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        }
+    }
+
+    @Test
+    public void refundGivesTokenBack() {
+        RateLimiter limiter = limiter(1, 60);
+        UUID player = UUID.randomUUID();
+
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        assertFalse(limiter.canPerform(Action.COMMENT, player));
+        limiter.refund(Action.COMMENT, player);
+        assertTrue(limiter.canPerform(Action.COMMENT, player));
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        assertFalse(limiter.tryPerform(Action.COMMENT, player));
+    }
+
+    @Test
+    public void keepsEveryPlayerAcrossResizes() {
+        RateLimiter limiter = limiter(1, 60);
+        // Sequential UUIDs (as offline mode produces similar ones) collide in the low bits and force probing
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            players.add(new UUID(0, i));
+        }
+
+        for (UUID player : players) {
+            assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        }
+        for (UUID player : players) {
+            assertFalse("Lost bucket of " + player, limiter.canPerform(Action.COMMENT, player));
+        }
+        limiter.refund(Action.COMMENT, players.get(1234));
+        assertTrue(limiter.canPerform(Action.COMMENT, players.get(1234)));
+        assertFalse(limiter.canPerform(Action.COMMENT, players.get(1235)));
+    }
+
+    @Test
+    public void adoptsLongerStoredCooldown() {
+        RateLimiter limiter = limiter(1, 60);
+        RecordingStore store = new RecordingStore();
+        limiter.setSharedStore(store);
+        UUID player = UUID.randomUUID();
+
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        // Another server recorded a use too, so the stored bucket is full later than ours
+        store.pendingRecords.get(0).accept(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(120));
+
+        assertTrue(limiter.getRemainingSeconds(Action.COMMENT, player) > 60);
+    }
+
+    @Test
+    public void staleReadBackDoesNotUndoRefund() {
+        RateLimiter limiter = limiter(1, 60);
+        RecordingStore store = new RecordingStore();
+        limiter.setSharedStore(store);
+        UUID player = UUID.randomUUID();
+
+        assertTrue(limiter.tryPerform(Action.COMMENT, player));
+        limiter.refund(Action.COMMENT, player);
+        // The read-back of the use arrives after the refund and still contains the use
+        store.pendingRecords.get(0).accept(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60));
+
+        assertTrue(limiter.canPerform(Action.COMMENT, player));
+        assertEquals(List.of("record", "refund"), store.operations);
+    }
+
+    @Test
+    public void prefetchedCooldownApplies() {
+        RateLimiter limiter = limiter(1, 60);
+        UUID player = UUID.randomUUID();
+
+        limiter.merge(Action.COMMENT, player, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30));
+        assertFalse(limiter.canPerform(Action.COMMENT, player));
+        // Stored buckets that are already full change nothing
+        UUID other = UUID.randomUUID();
+        limiter.merge(Action.COMMENT, other, System.currentTimeMillis() - 1000);
+        assertTrue(limiter.canPerform(Action.COMMENT, other));
+    }
+}
@@ -0,0 +1,158 @@
+package dev.msntech.msnreports.webhook;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import okhttp3.Headers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WebhookLaneTest {
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        // A stopped scheduler keeps the lane from pumping, responses are fed in by hand
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.shutdownNow();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private WebhookLane lane(int maxAttempts) {
+        return new WebhookLane("test", "http://localhost/webhook", null, scheduler,
+                Logger.getLogger("WebhookLaneTest"), "msnReports", 100, maxAttempts, 0);
+    }
+
+    private static WebhookEmbed embed(String description) {
+        return new WebhookEmbedBuilder().setDescription(description).build();
+    }
+
+    private static List<CompletableFuture<Boolean>> enqueue(WebhookLane lane, int count) {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(lane.enqueue(embed("report " + i)));
+        }
+        return futures;
+    }
+
+    @Test
+    public void successCompletesWholeBatch() {
+        WebhookLane lane = lane(3);
+        List<CompletableFuture<Boolean>> futures = enqueue(lane, 3);
+
+        List<WebhookLane.Delivery> batch = lane.takeBatch();
+        assertEquals(3, batch.size());
+        lane.handleResponse(batch, 204, Headers.of());
+
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.getNow(false));
+        }
+        assertEquals(0, lane.size());
+    }
+
+    @Test
+    public void rateLimitRetriesWithoutCountingAttempt() {
+        WebhookLane lane = lane(1);
+        List<CompletableFuture<Boolean>> futures = enqueue(lane, 2);
+
+        List<WebhookLane.Delivery> batch = lane.takeBatch();
+        lane.handleResponse(batch, 429, Headers.of("Retry-After", "0.5"));
+
+        assertFalse(futures.get(0).isDone());
+        assertFalse(futures.get(1).isDone());
+        assertEquals(2, lane.size());
+        assertEquals(batch, lane.takeBatch());
+    }
+
+    @Test
+    public void serverErrorRetriesUntilMaxAttempts() {
+        WebhookLane lane = lane(2);
+        List<CompletableFuture<Boolean>> futures = enqueue(lane, 2);
+
+        lane.handleResponse(lane.takeBatch(), 503, Headers.of());
+        assertFalse(futures.get(0).isDone());
+        assertEquals(2, lane.size());
+
+        lane.handleResponse(lane.takeBatch(), 502, Headers.of());
+        assertFalse(futures.get(0).getNow(true));
+        assertFalse(futures.get(1).getNow(true));
+        assertEquals(0, lane.size());
+    }
+
+    @Test
+    public void clientErrorOnSingleEmbedDropsIt() {
+        WebhookLane lane = lane(3);
+        List<CompletableFuture<Boolean>> futures = enqueue(lane, 1);
+
+        lane.handleResponse(lane.takeBatch(), 400, Headers.of());
+
+        assertFalse(futures.get(0).getNow(true));
+        assertEquals(0, lane.size());
+    }
+
+    @Test
+    public void badRequestOnMixedBatchDropsOnlyOffendingEmbed() {
+        WebhookLane lane = lane(3);
+        List<CompletableFuture<Boolean>> futures = enqueue(lane, 4);
+
+        // Embed 1 is the one Discord rejects, every message containing it fails
+        List<WebhookLane.Delivery> batch = lane.takeBatch();
+        assertEquals(4, batch.size());
+        lane.handleResponse(batch, 400, Headers.of());
+        for (CompletableFuture<Boolean> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        batch = lane.takeBatch();
+        assertEquals(2, batch.size());
+        lane.handleResponse(batch, 400, Headers.of());
+
+        batch = lane.takeBatch();
+        assertEquals(1, batch.size());
+        lane.handleResponse(batch, 204, Headers.of());
+        assertTrue(futures.get(0).getNow(false));
+
+        batch = lane.takeBatch();
+        assertEquals(1, batch.size());
+        lane.handleResponse(batch, 400, Headers.of());
+        assertFalse(futures.get(1).getNow(true));
+
+        while (lane.size() > 0) {
+            lane.handleResponse(lane.takeBatch(), 204, Headers.of());
+        }
+        assertTrue(futures.get(2).getNow(false));
+        assertTrue(futures.get(3).getNow(false));
+
+        // Once the rejected message is worked off, new embeds batch normally again
+        enqueue(lane, 3);
+        assertEquals(3, lane.takeBatch().size());
+    }
+
+    @Test
+    public void deletedWebhookFailsWholeBatch() {
+        WebhookLane lane = lane(3);
+        List<CompletableFuture<Boolean>> futures = enqueue(lane, 3);
+
+        lane.handleResponse(lane.takeBatch(), 404, Headers.of());
+
+        for (CompletableFuture<Boolean> future : futures) {
+            assertFalse(future.getNow(true));
+        }
+        assertEquals(0, lane.size());
+    }
+}